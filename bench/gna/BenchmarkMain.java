@@ -0,0 +1,42 @@
+package gna;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks with the GC profiler, so the allocation rate is reported next to
+ *  the throughput and the latency percentiles.
+ *  The benchmarks are compiled together with the sources in src and the JMH libraries
+ *  (jmh-core and jmh-generator-annprocess as annotation processor), and run from the root of the project
+ *  because the board files are read relative to it:
+ *
+ *  javac -cp src:jmh-core.jar:jmh-generator-annprocess.jar:libpract.jar -d out src/gna/*.java bench/gna/*.java
+ *  java -cp out:jmh-core.jar:jopt-simple.jar:commons-math3.jar:libpract.jar gna.BenchmarkMain [JMH options]
+ *
+ *  The JMH options select and narrow the benchmarks, for example "BoardBenchmark" or "-p path=boards/puzzle42.txt".
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class BenchmarkMain {
+
+	/**
+	 * Runs the benchmarks selected by the given JMH options with the GC profiler.
+	 * @param args The JMH command line options.
+	 * @throws RunnerException When a benchmark fails.
+	 * @throws CommandLineOptionException When the options cannot be parsed.
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
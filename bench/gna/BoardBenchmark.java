@@ -0,0 +1,108 @@
+package gna;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks of the hot paths of Board, for every board file.
+ *  The Hamming and Manhattan distances are cached in the board, so they are measured both as lookup
+ *  and as part of creating a board from its tiles (which computes them).
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+	/**
+	 * Variable storing the path of the board file of the current run.
+	 */
+	@Param({"boards/puzzle04.txt", "boards/puzzle20.txt", "boards/puzzle22.txt", "boards/puzzle24.txt",
+		"boards/puzzle26.txt", "boards/puzzle28.txt", "boards/puzzle30.txt", "boards/puzzle32.txt",
+		"boards/puzzle34.txt", "boards/puzzle36.txt", "boards/puzzle38.txt", "boards/puzzle3x3-impossible.txt",
+		"boards/puzzle40.txt", "boards/puzzle42.txt"})
+	public String path;
+
+	/**
+	 * Variable storing the board of the file.
+	 */
+	private Board board;
+
+	/**
+	 * Variable storing a different board object with the same tiles.
+	 */
+	private Board equalBoard;
+
+	/**
+	 * Variable storing the tiles of the board.
+	 */
+	private int[][] tiles;
+
+	/**
+	 * Reads the board of the current file.
+	 */
+	@Setup
+	public void setUp() {
+		board = BoardReader.getBoardWithData(path);
+		tiles = board.getTiles();
+		equalBoard = new Board(tiles);
+	}
+
+	@Benchmark
+	public void neighbors(Blackhole blackhole) {
+		blackhole.consume(board.neighbors());
+	}
+
+	@Benchmark
+	public int manhattan() {
+		return board.manhattan();
+	}
+
+	@Benchmark
+	public int hamming() {
+		return board.hamming();
+	}
+
+	@Benchmark
+	public Board createFromTiles() {
+		return new Board(tiles);
+	}
+
+	@Benchmark
+	public boolean isSolvable() {
+		return board.isSolvable();
+	}
+
+	@Benchmark
+	public int hashCodeOfBoard() {
+		return board.hashCode();
+	}
+
+	@Benchmark
+	public boolean equalsOfBoards() {
+		return board.equals(equalBoard);
+	}
+
+	@Benchmark
+	public int linearConflict() {
+		return new LinearConflictComparator().heuristic(board);
+	}
+
+}
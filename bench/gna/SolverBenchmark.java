@@ -0,0 +1,74 @@
+package gna;
+
+import java.util.concurrent.TimeUnit;
+
+import libpract.PriorityFunc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of solving a board from start to end,
+ *  for every solvable board file, both priority functions and the search modes.
+ *  The 7x7 and 9x9 boards are left out because the Hamming priority takes too long on them;
+ *  they can be run with "-p path=boards/puzzle20.txt -p priority=MANHATTAN" on the command line.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xss16m", "-Xmx2g"})
+public class SolverBenchmark {
+
+	/**
+	 * Variable storing the path of the board file of the current run.
+	 */
+	@Param({"boards/puzzle04.txt", "boards/puzzle22.txt", "boards/puzzle24.txt", "boards/puzzle28.txt",
+		"boards/puzzle30.txt", "boards/puzzle32.txt", "boards/puzzle34.txt", "boards/puzzle36.txt",
+		"boards/puzzle38.txt", "boards/puzzle40.txt", "boards/puzzle42.txt"})
+	public String path;
+
+	/**
+	 * Variable storing the priority function of the current run.
+	 */
+	@Param({"HAMMING", "MANHATTAN"})
+	public PriorityFunc priority;
+
+	/**
+	 * Variable storing the search mode of the current run.
+	 */
+	@Param({"A_STAR", "BUCKET_A_STAR", "ARENA_A_STAR", "IDA_STAR"})
+	public SearchMode mode;
+
+	/**
+	 * Variable storing the board of the file.
+	 */
+	private Board board;
+
+	/**
+	 * Reads the board of the current file.
+	 */
+	@Setup
+	public void setUp() {
+		board = BoardReader.getBoardWithData(path);
+	}
+
+	@Benchmark
+	public Solver solve() {
+		return new Solver(board, priority, mode);
+	}
+
+}
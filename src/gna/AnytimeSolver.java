@@ -0,0 +1,310 @@
+package gna;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The anytime solver finds a solution within a time limit, with anytime repairing A* (ARA*).
+ *  It starts with weighted A*, which orders the states on moves + weight * heuristic and quickly finds a solution
+ *  with at most weight times the fewest number of moves. Then it lowers the weight and improves the solution, reusing
+ *  the states which were already reached: only the states of which the number of moves improved are expanded again.
+ *  When the time is up, the best solution found so far is kept together with a proven bound on its suboptimality:
+ *  the solution has at most bound times the fewest number of moves. A bound of 1 means the solution is optimal.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class AnytimeSolver {
+
+	/**
+	 * Variable storing the default weight of the first search.
+	 */
+	public static final double DEFAULT_INITIAL_WEIGHT = 2.0;
+
+	/**
+	 * Variable storing the default amount by which the weight is lowered after every search.
+	 */
+	public static final double DEFAULT_WEIGHT_STEP = 0.25;
+
+	/**
+	 * Variable storing the mask of the number of expanded boards after which the time limit is checked.
+	 */
+	private static final long DEADLINE_CHECK_MASK = 255;
+
+	/**
+	 * Variable storing the factor by which the weights are multiplied, so the priorities are integers.
+	 */
+	private static final int WEIGHT_SCALE = 100;
+
+	/**
+	 * Variable storing the heuristic used for the priorities.
+	 */
+	private final HeuristicComparator heuristic;
+
+	/**
+	 * Variable storing the value of System.nanoTime() at which the search stops.
+	 */
+	private final long deadline;
+
+	/**
+	 * Variable storing the statistics of all the searches together.
+	 */
+	private final SolverStats stats = new SolverStats();
+
+	/**
+	 * Variable storing the fewest number of moves with which every board was reached.
+	 */
+	private final TranspositionTable fewestMoves = new TranspositionTable();
+
+	/**
+	 * Variable storing the current weight, multiplied by WEIGHT_SCALE.
+	 */
+	private int scaledWeight;
+
+	/**
+	 * Variable storing the best solution state found so far; null when there is none.
+	 */
+	private BoardState solution;
+
+	/**
+	 * Variable storing the moves of the best solution; null when there is none.
+	 */
+	private MoveSequence moves;
+
+	/**
+	 * Variable storing the proven bound on the suboptimality of the best solution.
+	 */
+	private double suboptimalityBound = Double.POSITIVE_INFINITY;
+
+	/**
+	 * Finds a solution to the initial board within the given time, with the default weights.
+	 * @effect | this(initial, heuristic, timeoutMillis, DEFAULT_INITIAL_WEIGHT, DEFAULT_WEIGHT_STEP)
+	 */
+	public AnytimeSolver(Board initial, HeuristicComparator heuristic, long timeoutMillis) {
+		this(initial, heuristic, timeoutMillis, DEFAULT_INITIAL_WEIGHT, DEFAULT_WEIGHT_STEP);
+	}
+
+	/**
+	 * Finds a solution to the initial board within the given time.
+	 *  The solver stops as soon as the solution is proven optimal, or when the time is up.
+	 * @param initial       The initial board.
+	 * @param heuristic     The heuristic used for the priorities.
+	 * @param timeoutMillis The time after which the best solution found so far is kept, in milliseconds.
+	 * @param initialWeight The weight of the heuristic in the first search, at least 1.
+	 * @param weightStep    The amount by which the weight is lowered after every search, positive.
+	 * @throws IllegalArgumentException when the board cannot be solved, when the heuristic equals null,
+	 *                                  or when the timeout or one of the weights is not valid.
+	 */
+	public AnytimeSolver(Board initial, HeuristicComparator heuristic, long timeoutMillis, double initialWeight, double weightStep) {
+		long start = System.nanoTime();
+		if (initial == null || !initial.isSolvable()) {
+			throw new IllegalArgumentException("Cannot solve a board which is null or unsolvable.");
+		}
+		if (heuristic == null) {
+			throw new IllegalArgumentException("Priority function not supported");
+		}
+		if (timeoutMillis < 0 || initialWeight < 1 || weightStep <= 0) {
+			throw new IllegalArgumentException("The timeout cannot be negative, the weight needs to be at least 1 and the step positive");
+		}
+		this.heuristic = heuristic;
+		this.deadline = start + timeoutMillis * 1000000L;
+		this.scaledWeight = (int) Math.round(initialWeight * WEIGHT_SCALE);
+		stats.setCheckNanos(System.nanoTime() - start);
+		stats.startSearch();
+		this.solve(initial, (int) Math.round(weightStep * WEIGHT_SCALE));
+		stats.endSearch();
+		if (solution != null) {
+			moves = new MoveSequence(solution);
+			solution = null;
+		}
+	}
+
+	/**
+	 * Runs weighted searches with lowering weights until the solution is proven optimal or the time is up.
+	 * @param initial          The initial board.
+	 * @param scaledWeightStep The amount by which the weight is lowered after every search, multiplied by WEIGHT_SCALE.
+	 */
+	private void solve(Board initial, int scaledWeightStep) {
+		BoardState start = new BoardState(initial, null, 0, heuristic.heuristic(initial));
+		stats.heuristicEvaluated();
+		if (initial.isSolved()) {
+			solution = start;
+			suboptimalityBound = 1;
+			return;
+		}
+		fewestMoves.put(initial.getKey(), 0);
+		List<BoardState> open = new ArrayList<>();
+		open.add(start);
+		while (true) {
+			PriorityQueue<BoardState> queue = new PriorityQueue<>(Math.max(1, open.size()), this.getWeightedOrder());
+			queue.addAll(open);
+			List<BoardState> inconsistent = new ArrayList<>();
+			boolean finished = this.improveSolution(queue, inconsistent);
+			open = new ArrayList<>(queue);
+			open.addAll(inconsistent);
+			if (solution != null) {
+				double weight = (double) scaledWeight / WEIGHT_SCALE;
+				suboptimalityBound = Math.min(finished ? weight : suboptimalityBound,
+						(double) solution.getNbrMoves() / this.getLowerBound(open));
+				suboptimalityBound = Math.max(1, suboptimalityBound);
+			}
+			if (!finished || suboptimalityBound <= 1) {
+				return;
+			}
+			scaledWeight = Math.max(WEIGHT_SCALE, scaledWeight - scaledWeightStep);
+		}
+	}
+
+	/**
+	 * Expands the states of the queue in weighted order, until no state can lead to a better solution at the current weight.
+	 *  States of which the number of moves improves after their board was expanded in this search are not expanded again
+	 *  in this search, they are kept for the next one.
+	 * @param queue        The states which still have to be expanded, in weighted order.
+	 * @param inconsistent The list to which the states for the next search are added.
+	 * @return True when the search finished; false when the time is up.
+	 */
+	private boolean improveSolution(PriorityQueue<BoardState> queue, List<BoardState> inconsistent) {
+		TranspositionTable expanded = new TranspositionTable();
+		while (!queue.isEmpty() && (solution == null || this.getWeightedPriority(queue.peek()) < WEIGHT_SCALE * solution.getNbrMoves())) {
+			BoardState state = queue.poll();
+			long key = state.getCurrentBoard().getKey();
+			if (state.getNbrMoves() > fewestMoves.get(key)) {
+				stats.duplicatePruned();
+				continue;
+			}
+			expanded.put(key, 1);
+			stats.expanded();
+			if ((stats.getNbrExpandedNodes() & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() - deadline >= 0) {
+				queue.add(state);
+				return false;
+			}
+			int nbrMoves = state.getNbrMoves() + 1;
+			for (Board board : state.getCurrentNeighbors()) {
+				stats.generated();
+				long neighborKey = board.getKey();
+				if (!fewestMoves.putIfSmaller(neighborKey, nbrMoves)) {
+					stats.duplicatePruned();
+					continue;
+				}
+				BoardState next = new BoardState(board, state, nbrMoves, heuristic.heuristic(board, state));
+				stats.heuristicEvaluated();
+				if (board.isSolved()) {
+					if (solution == null || nbrMoves < solution.getNbrMoves()) {
+						solution = next;
+					}
+				} else if (expanded.contains(neighborKey)) {
+					inconsistent.add(next);
+				} else {
+					queue.add(next);
+				}
+			}
+			stats.updatePeakOpenSize(queue.size() + inconsistent.size());
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the smallest number of moves plus heuristic value of the given states which are not stale;
+	 *  no solution which was not found yet has fewer moves.
+	 * @param states The states which still have to be expanded.
+	 * @return The lower bound; the largest int when there are no such states.
+	 */
+	private int getLowerBound(List<BoardState> states) {
+		int result = Integer.MAX_VALUE;
+		for (BoardState state : states) {
+			if (state.getNbrMoves() == fewestMoves.get(state.getCurrentBoard().getKey())) {
+				result = Math.min(result, state.getPriority());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the priority of the given state at the current weight, multiplied by WEIGHT_SCALE.
+	 * @param state The state.
+	 * @return WEIGHT_SCALE * moves + scaledWeight * heuristic
+	 */
+	private int getWeightedPriority(BoardState state) {
+		return WEIGHT_SCALE * state.getNbrMoves() + scaledWeight * state.getHeuristic();
+	}
+
+	/**
+	 * Returns the order of the states at the current weight: the smallest weighted priority first,
+	 *  and among equal priorities the most moves first.
+	 * @return The weighted order.
+	 */
+	private Comparator<BoardState> getWeightedOrder() {
+		return new Comparator<BoardState>() {
+			@Override
+			public int compare(BoardState state1, BoardState state2) {
+				int result = Integer.compare(getWeightedPriority(state1), getWeightedPriority(state2));
+				return (result != 0) ? result : Integer.compare(state2.getNbrMoves(), state1.getNbrMoves());
+			}
+		};
+	}
+
+	/**
+	 * Returns whether a solution was found within the time.
+	 * @return True when a solution was found; otherwise false.
+	 */
+	public boolean hasSolution() {
+		return moves != null;
+	}
+
+	/**
+	 * Returns the moves of the best solution.
+	 * @return the moves of the best solution; null when no solution was found.
+	 */
+	public MoveSequence getMoves() {
+		return moves;
+	}
+
+	/**
+	 * Returns the number of moves of the best solution.
+	 * @return the number of moves of the best solution.
+	 * @throws IllegalStateException When no solution was found.
+	 */
+	public int getNbrMoves() {
+		if (!this.hasSolution()) {
+			throw new IllegalStateException("No solution was found within the time");
+		}
+		return moves.size();
+	}
+
+	/**
+	 * Returns the proven bound on the suboptimality of the best solution.
+	 * @return The bound: the solution has at most bound times the fewest number of moves;
+	 *         infinity when no solution was found.
+	 */
+	public double getSuboptimalityBound() {
+		return suboptimalityBound;
+	}
+
+	/**
+	 * Returns whether the best solution is proven to have the fewest number of moves.
+	 * @return True when the solution is optimal; otherwise false.
+	 *         | this.getSuboptimalityBound() == 1
+	 */
+	public boolean isOptimal() {
+		return suboptimalityBound == 1;
+	}
+
+	/**
+	 * Returns the weight of the last search.
+	 * @return the weight of the last search.
+	 */
+	public double getWeight() {
+		return (double) scaledWeight / WEIGHT_SCALE;
+	}
+
+	/**
+	 * Returns the statistics of all the searches together.
+	 * @return the statistics of all the searches.
+	 */
+	public SolverStats getStats() {
+		return stats;
+	}
+
+}
@@ -0,0 +1,250 @@
+package gna;
+
+/**
+ * A* search on the node ids of a NodeArena, for boards of at most NodeArena.MAX_SIZE.
+ *  The nodes are expanded in the order of a bucket queue, like BUCKET_A_STAR, but no object is created per node:
+ *  every expansion loads the packed tiles of the node into one reusable grid, moves the empty tile in place
+ *  and stores the neighbours as new ids.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+class ArenaSearch {
+
+	/**
+	 * Variable storing the order in which the neighbours are visited, the same order as Board.neighbors().
+	 */
+	private static final MoveDirection[] DIRECTIONS = {MoveDirection.LEFT, MoveDirection.TOP, MoveDirection.RIGHT, MoveDirection.BOTTOM};
+
+	/**
+	 * Variable storing the board from which the search starts.
+	 */
+	private final Board initial;
+
+	/**
+	 * Variable storing the heuristic used for the priorities.
+	 */
+	private final HeuristicComparator heuristic;
+
+	/**
+	 * Variable storing the arena which holds the nodes.
+	 */
+	private final NodeArena arena;
+
+	/**
+	 * Variable storing the statistics of the search.
+	 */
+	private final SolverStats stats;
+
+	/**
+	 * Initialises a search from the given board.
+	 * @param initial   The board from which the search starts.
+	 * @param heuristic The heuristic used for the priorities.
+	 * @param arena     The arena which holds the nodes, it is cleared first.
+	 * @param stats     The statistics which count the work of the search.
+	 * @throws IllegalArgumentException When the board is larger than NodeArena.MAX_SIZE.
+	 */
+	ArenaSearch(Board initial, HeuristicComparator heuristic, NodeArena arena, SolverStats stats) {
+		if (initial.getSize() > NodeArena.MAX_SIZE) {
+			throw new IllegalArgumentException("A node arena only holds boards up to size " + NodeArena.MAX_SIZE);
+		}
+		this.initial = initial;
+		this.heuristic = heuristic;
+		this.arena = arena;
+		this.stats = stats;
+	}
+
+	/**
+	 * Searches a solution with the fewest moves.
+	 * @return The moves of the solution.
+	 */
+	MoveSequence solve() {
+		arena.clear();
+		TranspositionTable fewestMoves = arena.getFewestMoves();
+		IntBucketQueue open = arena.getOpen();
+		PackedGrid grid = new PackedGrid(initial.getSize());
+		long solved = Board.getSolvedBoard(initial.getSize()).getKey();
+		int initialHeuristic = heuristic.heuristic(initial);
+		stats.heuristicEvaluated();
+		fewestMoves.put(initial.getKey(), 0);
+		open.offer(arena.add(initial.getKey(), -1, 0, initialHeuristic, initial.getBlankIndex(), -1), initialHeuristic, 0);
+		int id;
+		while (true) {
+			id = open.poll();
+			long tiles = arena.getTiles(id);
+			int nbrMoves = arena.getNbrMoves(id);
+			if (nbrMoves > fewestMoves.get(tiles)) {
+				stats.duplicatePruned();
+				continue;
+			}
+			if (tiles == solved) {
+				break;
+			}
+			stats.expanded();
+			int blank = arena.getBlank(id);
+			int value = arena.getHeuristic(id);
+			stats.updateBound(nbrMoves + value);
+			grid.load(tiles, blank);
+			for (MoveDirection direction : DIRECTIONS) {
+				int target = grid.getTargetIndex(direction);
+				if (target < 0) {
+					continue;
+				}
+				int tile = grid.moveBlank(target);
+				stats.generated();
+				if (fewestMoves.putIfSmaller(grid.getTiles(), nbrMoves + 1)) {
+					int neighborValue = heuristic.heuristic(grid, value, tile, target, blank);
+					stats.heuristicEvaluated();
+					int neighbor = arena.add(grid.getTiles(), id, nbrMoves + 1, neighborValue, target, direction.ordinal());
+					open.offer(neighbor, nbrMoves + 1 + neighborValue, nbrMoves + 1);
+				} else {
+					stats.duplicatePruned();
+				}
+				grid.moveBlank(blank);
+			}
+			stats.updatePeakOpenSize(open.size());
+		}
+		return this.getMoves(id);
+	}
+
+	/**
+	 * Returns the moves which lead from the initial board to the board of the given node.
+	 * @param id The id of the node.
+	 * @return The moves to the node.
+	 */
+	private MoveSequence getMoves(int id) {
+		MoveDirection[] moves = new MoveDirection[arena.getNbrMoves(id)];
+		MoveDirection[] directions = MoveDirection.values();
+		for (int node = id; arena.getParent(node) >= 0; node = arena.getParent(node)) {
+			moves[arena.getNbrMoves(node) - 1] = directions[arena.getMove(node)];
+		}
+		return new MoveSequence(initial, moves);
+	}
+
+	/**
+	 * A tile grid of which the tiles are packed in a long like in the arena, changed in place.
+	 *  The Hamming and Manhattan distances are computed when the tiles are loaded and updated on every move.
+	 */
+	private static final class PackedGrid implements TileGrid {
+
+		/**
+		 * Variable storing the size of the grid.
+		 */
+		private final int size;
+
+		/**
+		 * Variable storing the tiles, 4 bits per tile.
+		 */
+		private long tiles;
+
+		/**
+		 * Variable storing the index of the empty tile.
+		 */
+		private int blankIndex;
+
+		/**
+		 * Variable storing the Hamming distance.
+		 */
+		private int hammingDistance;
+
+		/**
+		 * Variable storing the Manhattan distance.
+		 */
+		private int manhattanDistance;
+
+		/**
+		 * Initialises an empty grid of the given size.
+		 * @param size The size of the grid.
+		 */
+		private PackedGrid(int size) {
+			this.size = size;
+		}
+
+		/**
+		 * Replaces the tiles of the grid.
+		 * @param tiles      The tiles, 4 bits per tile.
+		 * @param blankIndex The index of the empty tile.
+		 */
+		private void load(long tiles, int blankIndex) {
+			this.tiles = tiles;
+			this.blankIndex = blankIndex;
+			hammingDistance = 0;
+			manhattanDistance = 0;
+			for (int index = 0; index < size * size; index++) {
+				int value = this.getValue(index);
+				if (value != 0) {
+					hammingDistance += (value != index + 1) ? 1 : 0;
+					manhattanDistance += Board.getDistance(size, index, value);
+				}
+			}
+		}
+
+		/**
+		 * Moves the empty tile to the given index.
+		 * @param target The index next to the empty tile.
+		 * @return The tile which moved into the old place of the empty tile.
+		 */
+		private int moveBlank(int target) {
+			int tile = this.getValue(target);
+			hammingDistance += (blankIndex != tile - 1 ? 1 : 0) - (target != tile - 1 ? 1 : 0);
+			manhattanDistance += Board.getDistance(size, blankIndex, tile) - Board.getDistance(size, target, tile);
+			tiles = (tiles & ~(0xFL << (4 * target))) | ((long) tile << (4 * blankIndex));
+			blankIndex = target;
+			return tile;
+		}
+
+		/**
+		 * Returns the index to which the empty tile moves in the given direction.
+		 * @param direction The direction of the move.
+		 * @return The index; -1 when the move leaves the grid.
+		 */
+		private int getTargetIndex(MoveDirection direction) {
+			int row = blankIndex / size;
+			int column = blankIndex % size;
+			switch (direction) {
+			case LEFT:
+				return column > 0 ? blankIndex - 1 : -1;
+			case RIGHT:
+				return column < size - 1 ? blankIndex + 1 : -1;
+			case TOP:
+				return row > 0 ? blankIndex - size : -1;
+			default:
+				return row < size - 1 ? blankIndex + size : -1;
+			}
+		}
+
+		/**
+		 * Returns the tiles of the grid.
+		 * @return the tiles, 4 bits per tile.
+		 */
+		private long getTiles() {
+			return tiles;
+		}
+
+		@Override
+		public int getSize() {
+			return size;
+		}
+
+		@Override
+		public int getValue(int index) {
+			return (int) ((tiles >>> (4 * index)) & 0xF);
+		}
+
+		@Override
+		public int getBlankIndex() {
+			return blankIndex;
+		}
+
+		@Override
+		public int hamming() {
+			return hammingDistance;
+		}
+
+		@Override
+		public int manhattan() {
+			return manhattanDistance;
+		}
+	}
+
+}
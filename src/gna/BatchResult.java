@@ -0,0 +1,177 @@
+package gna;
+
+/**
+ * A batch result contains the outcome of solving one board of a batch.
+ *  Only the numbers are kept (not the boards of the solution), so results of large batches stay small.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class BatchResult {
+
+	/**
+	 * Variable storing the position of the board in the batch.
+	 */
+	private final int index;
+
+	/**
+	 * Variable storing a description of where the board came from (a file path or its position).
+	 */
+	private final String source;
+
+	/**
+	 * Variable storing the fewest number of moves; -1 when the board was not solved.
+	 */
+	private final int nbrMoves;
+
+	/**
+	 * Variable storing the time spent on the board in nanoseconds, reading the board included.
+	 */
+	private final long nanos;
+
+	/**
+	 * Variable storing the number of expanded boards.
+	 */
+	private final long nbrExpandedNodes;
+
+	/**
+	 * Variable storing the number of bytes allocated by the thread which solved the board; -1 when it is not known.
+	 */
+	private final long allocatedBytes;
+
+	/**
+	 * Variable storing the statistics of the solver; null when they are not known.
+	 */
+	private final SolverStats stats;
+
+	/**
+	 * Variable storing the reason why the board was not solved; null when it was solved.
+	 *  Besides exceptions this can be a StackOverflowError or an OutOfMemoryError of the search of this board.
+	 */
+	private final Throwable error;
+
+	/**
+	 * Initialises a batch result with all the given variables.
+	 * @param index            The position of the board in the batch.
+	 * @param source           A description of where the board came from.
+	 * @param nbrMoves         The fewest number of moves; -1 when the board was not solved.
+	 * @param nanos            The time spent on the board in nanoseconds.
+	 * @param nbrExpandedNodes The number of expanded boards.
+	 * @param error            The reason why the board was not solved; null when it was solved.
+	 */
+	public BatchResult(int index, String source, int nbrMoves, long nanos, long nbrExpandedNodes, Throwable error) {
+		this.index = index;
+		this.source = source;
+		this.nbrMoves = nbrMoves;
+		this.nanos = nanos;
+		this.nbrExpandedNodes = nbrExpandedNodes;
+		this.allocatedBytes = -1;
+		this.stats = null;
+		this.error = error;
+	}
+
+	/**
+	 * Initialises a batch result with the statistics of the solver.
+	 * @param index          The position of the board in the batch.
+	 * @param source         A description of where the board came from.
+	 * @param nbrMoves       The fewest number of moves; -1 when the board was not solved.
+	 * @param nanos          The time spent on the board in nanoseconds.
+	 * @param allocatedBytes The number of bytes allocated by the thread which solved the board; -1 when it is not known.
+	 * @param stats          The statistics of the solver, also when it did not finish.
+	 * @param error          The reason why the board was not solved; null when it was solved.
+	 */
+	public BatchResult(int index, String source, int nbrMoves, long nanos, long allocatedBytes, SolverStats stats, Throwable error) {
+		this.index = index;
+		this.source = source;
+		this.nbrMoves = nbrMoves;
+		this.nanos = nanos;
+		this.nbrExpandedNodes = stats.getNbrExpandedNodes();
+		this.allocatedBytes = allocatedBytes;
+		this.stats = stats;
+		this.error = error;
+	}
+
+	/**
+	 * Returns the position of the board in the batch.
+	 * @return the position of the board in the batch.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns a description of where the board came from.
+	 * @return a description of where the board came from.
+	 */
+	public String getSource() {
+		return source;
+	}
+
+	/**
+	 * Returns the fewest number of moves.
+	 * @return the fewest number of moves; -1 when the board was not solved.
+	 */
+	public int getNbrMoves() {
+		return nbrMoves;
+	}
+
+	/**
+	 * Returns the time spent on the board in nanoseconds.
+	 * @return the time spent on the board in nanoseconds.
+	 */
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * Returns the number of expanded boards.
+	 * @return the number of expanded boards.
+	 */
+	public long getNbrExpandedNodes() {
+		return nbrExpandedNodes;
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the thread which solved the board.
+	 *  This includes garbage, so it is an upper bound of the memory the search needed at once.
+	 * @return the number of bytes allocated by the thread which solved the board; -1 when it is not known.
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * Returns the statistics of the solver.
+	 * @return the statistics of the solver; null when they are not known.
+	 */
+	public SolverStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Returns the reason why the board was not solved.
+	 * @return the reason why the board was not solved; null when it was solved.
+	 */
+	public Throwable getError() {
+		return error;
+	}
+
+	/**
+	 * Returns whether the board was solved.
+	 * @return True when the board was solved; otherwise false.
+	 *         | this.getError() == null
+	 */
+	public boolean isSolved() {
+		return error == null;
+	}
+
+	/**
+	 * Returns a string representation of the result.
+	 * @return a string representation of the result.
+	 */
+	@Override
+	public String toString() {
+		return source + "," + nbrMoves + "," + nanos + "," + nbrExpandedNodes + (error == null ? "" : "," + error.getMessage());
+	}
+
+}
@@ -0,0 +1,255 @@
+package gna;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The batch solver solves many independent boards concurrently on a work-stealing pool.
+ *  At most a fixed number of boards is in flight at the same time, so the memory of a batch is bounded
+ *  no matter how many boards it contains. Boards given as file paths are only read when their turn comes.
+ *  The results are handed to the caller in the order in which the boards are finished.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class BatchSolver implements AutoCloseable {
+
+	/**
+	 * Variable storing the pool on which the boards are solved.
+	 */
+	private final ExecutorService pool;
+
+	/**
+	 * Variable storing the maximum number of boards which are in flight at the same time.
+	 */
+	private final int maxInFlight;
+
+	/**
+	 * Variable storing the time after which the search of a board is stopped, in milliseconds; 0 when there is no limit.
+	 */
+	private final long timeoutMillis;
+
+	/**
+	 * Variable storing the node arena of every thread of the pool, reused by all the boards it solves with ARENA_A_STAR.
+	 */
+	private final ThreadLocal<NodeArena> arenas = new ThreadLocal<NodeArena>() {
+		@Override
+		protected NodeArena initialValue() {
+			return new NodeArena();
+		}
+	};
+
+	/**
+	 * Initialises a batch solver which uses all available processors
+	 *  and keeps twice that many boards in flight.
+	 * @effect | this(Runtime.getRuntime().availableProcessors(), 2 * Runtime.getRuntime().availableProcessors())
+	 */
+	public BatchSolver() {
+		this(Runtime.getRuntime().availableProcessors(), 2 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Initialises a batch solver.
+	 * @param nbrThreads  The number of threads which solve boards.
+	 * @param maxInFlight The maximum number of boards which are in flight at the same time.
+	 * @throws IllegalArgumentException When one of the numbers is not positive.
+	 * @effect | this(nbrThreads, maxInFlight, 0)
+	 */
+	public BatchSolver(int nbrThreads, int maxInFlight) {
+		this(nbrThreads, maxInFlight, 0);
+	}
+
+	/**
+	 * Initialises a batch solver which stops the search of a board after the given time.
+	 * @param nbrThreads    The number of threads which solve boards.
+	 * @param maxInFlight   The maximum number of boards which are in flight at the same time.
+	 * @param timeoutMillis The time after which the search of a board is stopped, in milliseconds; 0 when there is no limit.
+	 * @throws IllegalArgumentException When one of the numbers is not positive, or the timeout is negative.
+	 */
+	public BatchSolver(int nbrThreads, int maxInFlight, long timeoutMillis) {
+		if (nbrThreads <= 0 || maxInFlight <= 0 || timeoutMillis < 0) {
+			throw new IllegalArgumentException("The number of threads and boards in flight need to be positive, the timeout cannot be negative");
+		}
+		this.pool = Executors.newWorkStealingPool(nbrThreads);
+		this.maxInFlight = maxInFlight;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * Solves all the given boards.
+	 *  This method returns when every board is finished, the results are handed to the consumer
+	 *  on the calling thread as soon as they are finished.
+	 * @param boards    The boards which are solved.
+	 * @param heuristic The heuristic used for the priorities, shared by all the boards.
+	 * @param mode      The search algorithm used for all the boards.
+	 * @param results   The consumer which receives every result.
+	 * @throws InterruptedException When the calling thread is interrupted while waiting for results.
+	 */
+	public void solveBoards(Iterable<Board> boards, final HeuristicComparator heuristic, final SearchMode mode,
+			Consumer<BatchResult> results) throws InterruptedException {
+		final Iterator<Board> iterator = boards.iterator();
+		this.solve(new Iterator<Callable<BatchResult>>() {
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Callable<BatchResult> next() {
+				final Board board = iterator.next();
+				final int boardIndex = index++;
+				return new Callable<BatchResult>() {
+					@Override
+					public BatchResult call() {
+						return solve(boardIndex, "#" + boardIndex, board, System.nanoTime(), heuristic, mode, timeoutMillis, arenas);
+					}
+				};
+			}
+		}, results);
+	}
+
+	/**
+	 * Solves the boards of all the given files.
+	 *  Every file is read by the thread which solves it.
+	 * @param paths     The paths of the files containing the boards.
+	 * @param heuristic The heuristic used for the priorities, shared by all the boards.
+	 * @param mode      The search algorithm used for all the boards.
+	 * @param results   The consumer which receives every result.
+	 * @throws InterruptedException When the calling thread is interrupted while waiting for results.
+	 * @see #solveBoards(Iterable, HeuristicComparator, SearchMode, Consumer)
+	 */
+	public void solveFiles(Iterable<String> paths, final HeuristicComparator heuristic, final SearchMode mode,
+			Consumer<BatchResult> results) throws InterruptedException {
+		final Iterator<String> iterator = paths.iterator();
+		this.solve(new Iterator<Callable<BatchResult>>() {
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Callable<BatchResult> next() {
+				final String path = iterator.next();
+				final int boardIndex = index++;
+				return new Callable<BatchResult>() {
+					@Override
+					public BatchResult call() {
+						long start = System.nanoTime();
+						Board board = BoardReader.getBoardWithData(path);
+						return solve(boardIndex, path, board, start, heuristic, mode, timeoutMillis, arenas);
+					}
+				};
+			}
+		}, results);
+	}
+
+	/**
+	 * Submits the given tasks, keeping at most maxInFlight of them in flight, and hands every result to the consumer.
+	 * @param tasks   The tasks which solve one board each.
+	 * @param results The consumer which receives every result.
+	 * @throws InterruptedException When the calling thread is interrupted while waiting for results.
+	 */
+	private void solve(Iterator<Callable<BatchResult>> tasks, Consumer<BatchResult> results) throws InterruptedException {
+		CompletionService<BatchResult> completion = new ExecutorCompletionService<>(pool);
+		int inFlight = 0;
+		while (tasks.hasNext() || inFlight > 0) {
+			if (tasks.hasNext() && inFlight < maxInFlight) {
+				completion.submit(tasks.next());
+				inFlight++;
+				continue;
+			}
+			try {
+				results.accept(completion.take().get());
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("A board could not be solved", e.getCause());
+			}
+			inFlight--;
+		}
+	}
+
+	/**
+	 * Solves one board, catching the reason why it cannot be solved in the result.
+	 *  A stack overflow or running out of memory only fails this board, not the whole batch.
+	 * @param index         The position of the board in the batch.
+	 * @param source        A description of where the board came from.
+	 * @param board         The board; null when it could not be read.
+	 * @param start         The value of System.nanoTime() when the work on the board started.
+	 * @param heuristic     The heuristic used for the priorities.
+	 * @param mode          The search algorithm.
+	 * @param timeoutMillis The time after which the search is stopped, in milliseconds; 0 when there is no limit.
+	 * @param arenas        The node arenas of the threads, used with ARENA_A_STAR.
+	 * @return The result of the board.
+	 */
+	private static BatchResult solve(int index, String source, Board board, long start, HeuristicComparator heuristic, SearchMode mode,
+			long timeoutMillis, ThreadLocal<NodeArena> arenas) {
+		SolverStats stats = new SolverStats((timeoutMillis > 0) ? new CancellationToken(timeoutMillis) : null);
+		long allocatedBefore = getAllocatedBytes();
+		try {
+			if (board == null) {
+				throw new IllegalArgumentException("Cannot read the board of " + source);
+			}
+			Solver solver = (mode == SearchMode.ARENA_A_STAR) ? new Solver(board, heuristic, arenas.get(), stats)
+					: new Solver(board, heuristic, mode, stats);
+			int nbrMoves = solver.getMinimalNumberOfMoves();
+			return new BatchResult(index, source, nbrMoves, System.nanoTime() - start, getAllocatedSince(allocatedBefore), stats, null);
+		} catch (RuntimeException | StackOverflowError | OutOfMemoryError e) {
+			// the errors only concern the search of this board, whose memory is released when the catch is entered
+			return new BatchResult(index, source, -1, System.nanoTime() - start, getAllocatedSince(allocatedBefore), stats, e);
+		}
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the current thread so far.
+	 * @return The number of allocated bytes; -1 when the virtual machine does not measure them.
+	 */
+	private static long getAllocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof ThreadMXBean)) {
+			return -1;
+		}
+		ThreadMXBean allocations = (ThreadMXBean) bean;
+		if (!allocations.isThreadAllocatedMemorySupported() || !allocations.isThreadAllocatedMemoryEnabled()) {
+			return -1;
+		}
+		return allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the current thread since the given count.
+	 *  The workers of HDA_STAR have threads of their own, so their allocations are not included.
+	 * @param allocatedBefore The number of bytes allocated by the current thread before; -1 when it is not known.
+	 * @return The number of bytes allocated since then; -1 when it is not known.
+	 */
+	private static long getAllocatedSince(long allocatedBefore) {
+		long allocatedNow = getAllocatedBytes();
+		return (allocatedBefore < 0 || allocatedNow < 0) ? -1 : allocatedNow - allocatedBefore;
+	}
+
+	/**
+	 * Stops the threads of the pool, after the boards in flight are finished.
+	 */
+	@Override
+	public void close() {
+		pool.shutdown();
+		try {
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			pool.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,238 @@
+package gna;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Bidirectional heuristic search which meets in the middle (MM).
+ *  One search goes forward from the initial board with the given heuristic, the other goes backward from the solved board
+ *  with the Manhattan distance to the initial board. Both searches order their states on max(moves + heuristic, 2 * moves),
+ *  which makes sure that neither search expands states beyond the middle of an optimal solution.
+ *  Every time a board is reached by both searches, the combined number of moves is a candidate solution.
+ *  The search stops when the best candidate is at most the smallest priority of both searches,
+ *  which is a lower bound on the number of moves of any solution which was not found yet.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+class BidirectionalSearch {
+
+	/**
+	 * Variable storing the order of the states of both searches.
+	 */
+	private static final Comparator<BoardState> MM_ORDER = new Comparator<BoardState>() {
+		@Override
+		public int compare(BoardState state1, BoardState state2) {
+			int result = Integer.compare(getMeetPriority(state1), getMeetPriority(state2));
+			return (result != 0) ? result : Integer.compare(state1.getNbrMoves(), state2.getNbrMoves());
+		}
+	};
+
+	/**
+	 * Variable storing the board from which the forward search starts.
+	 */
+	private final Board initial;
+
+	/**
+	 * Variable storing the heuristic of the forward search.
+	 */
+	private final HeuristicComparator heuristic;
+
+	/**
+	 * Variable storing for every tile its index in the initial board, used by the heuristic of the backward search.
+	 */
+	private final int[] initialIndex;
+
+	/**
+	 * Variable storing the fewest number of moves of the best solution found so far.
+	 */
+	private int bestNbrMoves = Integer.MAX_VALUE;
+
+	/**
+	 * Variable storing the forward state of the board where the best solution found so far meets.
+	 */
+	private BoardState forwardMeeting;
+
+	/**
+	 * Variable storing the backward state of the board where the best solution found so far meets.
+	 */
+	private BoardState backwardMeeting;
+
+	/**
+	 * Variable storing the statistics of both searches.
+	 */
+	private final SolverStats stats;
+
+	/**
+	 * Initialises a search from the given board.
+	 * @param initial   The board from which the forward search starts.
+	 * @param heuristic The heuristic of the forward search.
+	 * @param stats     The statistics which count the work of both searches.
+	 */
+	BidirectionalSearch(Board initial, HeuristicComparator heuristic, SolverStats stats) {
+		this.initial = initial;
+		this.stats = stats;
+		this.heuristic = heuristic;
+		this.initialIndex = new int[initial.getSize() * initial.getSize()];
+		for (int index = 0; index < initialIndex.length; index++) {
+			initialIndex[initial.getValue(index)] = index;
+		}
+	}
+
+	/**
+	 * Searches a solution with the fewest moves.
+	 * @return The solution state, of which the previous states lead back to the initial board.
+	 */
+	BoardState solve() {
+		BoardState start = new BoardState(initial, null, 0, heuristic.heuristic(initial));
+		if (initial.isSolved()) {
+			return start;
+		}
+		Board solved = Board.getSolvedBoard(initial.getSize());
+		BoardState goal = new BoardState(solved, null, 0, this.getBackwardHeuristic(solved));
+		stats.heuristicEvaluated();
+		stats.heuristicEvaluated();
+
+		PriorityQueue<BoardState> forwardQueue = new PriorityQueue<>(MM_ORDER);
+		PriorityQueue<BoardState> backwardQueue = new PriorityQueue<>(MM_ORDER);
+		Map<Board, BoardState> forwardStates = new HashMap<>();
+		Map<Board, BoardState> backwardStates = new HashMap<>();
+		forwardQueue.add(start);
+		forwardStates.put(initial, start);
+		backwardQueue.add(goal);
+		backwardStates.put(solved, goal);
+
+		while (true) {
+			BoardState forwardBest = this.peek(forwardQueue, forwardStates);
+			BoardState backwardBest = this.peek(backwardQueue, backwardStates);
+			int lowerBound = Math.min(getMeetPriority(forwardBest), getMeetPriority(backwardBest));
+			if (bestNbrMoves <= lowerBound) {
+				break;
+			}
+			stats.updateBound(lowerBound);
+			if (getMeetPriority(forwardBest) <= getMeetPriority(backwardBest)) {
+				this.expand(forwardQueue.poll(), true, forwardQueue, forwardStates, backwardStates);
+			} else {
+				this.expand(backwardQueue.poll(), false, backwardQueue, backwardStates, forwardStates);
+			}
+			stats.updatePeakOpenSize(forwardQueue.size() + backwardQueue.size());
+		}
+		return this.joinMeetingStates();
+	}
+
+	/**
+	 * Expands the given state in one of both searches.
+	 * @param state       The state which is expanded.
+	 * @param forward     True when the state belongs to the forward search; false for the backward search.
+	 * @param queue       The priority queue of the search of the state.
+	 * @param states      The best state of every board reached by the search of the state.
+	 * @param otherStates The best state of every board reached by the other search.
+	 */
+	private void expand(BoardState state, boolean forward, PriorityQueue<BoardState> queue,
+			Map<Board, BoardState> states, Map<Board, BoardState> otherStates) {
+		stats.expanded();
+		int nbrMoves = state.getNbrMoves() + 1;
+		for (Board board : state.getCurrentNeighbors()) {
+			stats.generated();
+			BoardState known = states.get(board);
+			if (known != null && known.getNbrMoves() <= nbrMoves) {
+				stats.duplicatePruned();
+				continue;
+			}
+			int value = forward ? heuristic.heuristic(board, state) : this.getBackwardHeuristic(board, state);
+			stats.heuristicEvaluated();
+			BoardState next = new BoardState(board, state, nbrMoves, value);
+			states.put(board, next);
+			queue.add(next);
+			BoardState other = otherStates.get(board);
+			if (other != null && nbrMoves + other.getNbrMoves() < bestNbrMoves) {
+				bestNbrMoves = nbrMoves + other.getNbrMoves();
+				forwardMeeting = forward ? next : other;
+				backwardMeeting = forward ? other : next;
+			}
+		}
+	}
+
+	/**
+	 * Returns the best state of the given queue, after removing the states of which the board was reached with fewer moves.
+	 * @param queue  The priority queue.
+	 * @param states The best state of every board reached by the search of the queue.
+	 * @return The best state of the queue; null when the queue is empty.
+	 */
+	private BoardState peek(PriorityQueue<BoardState> queue, Map<Board, BoardState> states) {
+		BoardState state = queue.peek();
+		while (state != null && states.get(state.getCurrentBoard()) != state) {
+			queue.poll();
+			stats.duplicatePruned();
+			state = queue.peek();
+		}
+		return state;
+	}
+
+	/**
+	 * Returns the solution state, by continuing the forward meeting state with the boards of the backward meeting state.
+	 * @return The solution state, of which the previous states lead back to the initial board.
+	 */
+	private BoardState joinMeetingStates() {
+		BoardState state = forwardMeeting;
+		for (BoardState backward = backwardMeeting.getPreviousState(); backward != null; backward = backward.getPreviousState()) {
+			Board board = backward.getCurrentBoard();
+			state = new BoardState(board, state, state.getNbrMoves() + 1, heuristic.heuristic(board, state));
+		}
+		return state;
+	}
+
+	/**
+	 * Returns the sum of the Manhattan distances between the tiles of the given board and their positions in the initial board.
+	 * @param board The board.
+	 * @return The heuristic value of the backward search.
+	 */
+	private int getBackwardHeuristic(Board board) {
+		int result = 0;
+		for (int index = 0; index < initialIndex.length; index++) {
+			int value = board.getValue(index);
+			if (value != 0) {
+				result += this.getDistance(index, initialIndex[value]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the heuristic value of the backward search for a neighbour of the board of the given state.
+	 * @param board         The neighbour.
+	 * @param previousState The state of which the board is a neighbour.
+	 * @return The heuristic value of the backward search.
+	 */
+	private int getBackwardHeuristic(Board board, BoardState previousState) {
+		int toIndex = previousState.getCurrentBoard().getBlankIndex();
+		int goalIndex = initialIndex[board.getValue(toIndex)];
+		return previousState.getHeuristic() - this.getDistance(board.getBlankIndex(), goalIndex) + this.getDistance(toIndex, goalIndex);
+	}
+
+	/**
+	 * Returns the Manhattan distance between two indexes.
+	 * @param index1 The first index.
+	 * @param index2 The second index.
+	 * @return The Manhattan distance.
+	 */
+	private int getDistance(int index1, int index2) {
+		int size = initial.getSize();
+		return Math.abs(index1 / size - index2 / size) + Math.abs(index1 % size - index2 % size);
+	}
+
+	/**
+	 * Returns the priority of the given state: max(moves + heuristic, 2 * moves); the largest int when the state is null.
+	 * @param state The state.
+	 * @return The priority of the state.
+	 */
+	private static int getMeetPriority(BoardState state) {
+		if (state == null) {
+			return Integer.MAX_VALUE;
+		}
+		return Math.max(state.getPriority(), 2 * state.getNbrMoves());
+	}
+
+}
@@ -7,43 +7,146 @@ import java.util.Arrays;
 /**
  * The board represents the a matrix (2D-array) of tiles.
  *  The class contains multiple functions for changing the tiles or calculating data out of it.
- * 
+ *  The tiles are stored in a packed form: boards up to 4x4 store every tile in 4 bits of a single long,
+ *  larger boards store the tiles row by row in a flat byte array (one byte per tile, or two bytes per tile
+ *  when the tile values do not fit in a single unsigned byte).
+ *
  * @author Dries Janse
  * @version 1.0
  */
-public class Board {
+public class Board implements TileGrid {
 
 	/**
-	 * Variable storing the 2D array containing the values.
+	 * Variable storing the largest size of a board, of which every value still fits in the two bytes of a tile.
 	 */
-	private int[][] tiles;
+	public static final int MAX_SIZE = 256;
 
 	/**
-	 * Initialises a new board with the given tiles. The tiles stored are a deep copy of the given tiles.
-	 * 
-	 * @param tiles The tile of which a deep copy will be stored.
-	 * @post A deep copy of the tiles is set to the tiles variable.
-	 *       | this.setTiles(this.getDeepCopy(tiles))
+	 * Variable storing the largest size of which the tiles can be packed in a single long.
+	 */
+	private static final int MAX_PACKED_SIZE = 4;
+
+	/**
+	 * Variable storing the number of bits used for one tile in the packed long.
+	 */
+	private static final int BITS_PER_TILE = 4;
+
+	/**
+	 * Variable storing the mask of one tile in the packed long.
+	 */
+	private static final long TILE_MASK = 0xFL;
+
+	/**
+	 * Variable storing the size (number of rows and columns) of the board.
+	 */
+	private int size;
+
+	/**
+	 * Variable storing the packed tiles when the size is at most MAX_PACKED_SIZE.
+	 *  The tile on index i (row * size + column) is stored in bits 4*i up to 4*i+3.
+	 */
+	private long packedTiles;
+
+	/**
+	 * Variable storing the tiles when the size is larger than MAX_PACKED_SIZE; otherwise null.
+	 */
+	private byte[] tileBytes;
+
+	/**
+	 * Variable storing the Zobrist hash of the tiles when the size is larger than MAX_PACKED_SIZE; otherwise 0.
+	 *  It is updated with two XORs on every move.
+	 */
+	private long zobristKey;
+
+	/**
+	 * Variable storing the index (row * size + column) of the empty tile.
+	 */
+	private int blankIndex;
+
+	/**
+	 * Variable storing the Hamming distance of the board.
+	 */
+	private int hammingDistance;
+
+	/**
+	 * Variable storing the sum of the Manhattan distances of the board.
+	 */
+	private int manhattanDistance;
+
+	/**
+	 * Initialises a new board with the given tiles. The tiles are packed, the given array is not stored.
+	 *
+	 * @param tiles The tiles of which the values will be stored.
+	 * @throws IllegalArgumentException When tiles equals null, when tiles does not represent a square matrix,
+	 *                                  when it is larger than MAX_SIZE
+	 *                                  or when the values are not a permutation of 0 up to size*size-1.
+	 *                                  | tiles == null || !this.isSquare(tiles) || tiles.length > MAX_SIZE || !this.isPermutation(tiles)
+	 * @post The values of the tiles are stored in the packed form.
+	 *       | this.setTiles(tiles)
 	 */
 	public Board(int[][] tiles) {
-		this.setTiles(this.getDeepCopy(tiles));
+		this.setTiles(tiles);
+	}
+
+	/**
+	 * Initialises a new board with the given packed representation and distances.
+	 * @param size              The size of the board.
+	 * @param packedTiles       The packed tiles (only used when size is at most MAX_PACKED_SIZE).
+	 * @param tileBytes         The tile bytes (only used when size is larger than MAX_PACKED_SIZE).
+	 * @param zobristKey        The Zobrist hash of the tiles (only used when size is larger than MAX_PACKED_SIZE).
+	 * @param blankIndex        The index of the empty tile.
+	 * @param hammingDistance   The Hamming distance of the board.
+	 * @param manhattanDistance The sum of the Manhattan distances of the board.
+	 */
+	private Board(int size, long packedTiles, byte[] tileBytes, long zobristKey, int blankIndex, int hammingDistance, int manhattanDistance) {
+		this.size = size;
+		this.packedTiles = packedTiles;
+		this.tileBytes = tileBytes;
+		this.zobristKey = zobristKey;
+		this.blankIndex = blankIndex;
+		this.hammingDistance = hammingDistance;
+		this.manhattanDistance = manhattanDistance;
+	}
+
+	/**
+	 * Returns the solved board of the given size: the values 1 up to size*size-1 in order, followed by the empty tile.
+	 * @param size The size of the board.
+	 * @return The solved board of the given size.
+	 * @throws IllegalArgumentException When the size is not positive or larger than MAX_SIZE.
+	 */
+	public static Board getSolvedBoard(int size) {
+		if (size <= 0 || size > MAX_SIZE) {
+			throw new IllegalArgumentException("The size of a board needs to be between 1 and " + MAX_SIZE);
+		}
+		int[][] tiles = new int[size][size];
+		for (int index = 0; index < size * size; index++) {
+			tiles[index / size][index % size] = (index + 1) % (size * size);
+		}
+		return new Board(tiles);
 	}
 
 	/**
 	 * Returns the Hamming distance of the board.
 	 *  The Hamming distance equals the number of blocks out of place.
+	 *  The distance is computed once when the board is created.
 	 * @return The Hamming distance.
 	 */
+	@Override
 	public int hamming() {
-		int expectedValue = 1;
+		return hammingDistance;
+	}
+
+	/**
+	 * Computes the Hamming distance by looking at every tile.
+	 * @return The Hamming distance.
+	 */
+	private int computeHamming() {
 		int nbrIncorrect = 0;
-		for (int row = 0; row < this.getSize(); row++) {
-			for (int column = 0; column < this.getSize(); column++) {
-				int val = this.getValue(row, column);
-				if(val != 0 && val != expectedValue) {
-					nbrIncorrect++;
-				}
-				expectedValue++;
+		int nbrTiles = this.getSize() * this.getSize();
+		for (int index = 0; index < nbrTiles; index++) {
+			int val = this.getValue(index);
+			if(val != 0 && val != index + 1) {
+				nbrIncorrect++;
 			}
 		}
 		return nbrIncorrect;
@@ -51,43 +154,60 @@ public class Board {
 
 	/**
 	 * Returns the sum of Manhattan distances between blocks and goal.
+	 *  The sum is computed once when the board is created.
 	 * @return The sum of the Manhattan distances.
 	 */
+	@Override
 	public int manhattan() {
+		return manhattanDistance;
+	}
+
+	/**
+	 * Computes the sum of Manhattan distances by looking at every tile.
+	 * @return The sum of the Manhattan distances.
+	 */
+	private int computeManhattan() {
 		int totalDistance = 0;
-		for (int row = 0; row < this.getSize(); row++) {
-			for (int column = 0; column < this.getSize(); column++) {
-				int val = this.getValue(row, column);
-				if(val != 0 ) {
-					totalDistance += this.getDistance(row, column, val);
-				}
+		int nbrTiles = this.getSize() * this.getSize();
+		for (int index = 0; index < nbrTiles; index++) {
+			int val = this.getValue(index);
+			if(val != 0 ) {
+				totalDistance += this.getDistance(index, val);
 			}
 		}
 		return totalDistance;
 	}
-	
+
 	/**
 	 * Calculates one Manhattan distance for a value.
-	 *  The given row and column are the one of which the given value are positioned.
-	 *  Both need to be subtracted from the actual position the value need to be (for the solution).
+	 *  The given index is the one on which the given value is positioned.
+	 *  Both the row and the column need to be subtracted from the actual position the value need to be (for the solution).
 	 *  The sum of these differences is the result.
-	 * @param row    The row position of the value.
-	 * @param column The column position of the value.
-	 * @param value  The value of which the distance needs to be calculated.
+	 * @param index The index (row * size + column) of the value.
+	 * @param value The value of which the distance needs to be calculated.
 	 * @return The distance between the actual value position and the solution value position.
 	 */
-	private int getDistance(int row, int column, int value) {	
-		int[] pos = this.getXYPosition(value);
-		return Math.abs(row - pos[0]) + Math.abs(column - pos[1]);
+	private int getDistance(int index, int value) {
+		return getDistance(this.getSize(), index, value);
+	}
+
+	/**
+	 * Calculates one Manhattan distance for a value on a board of the given size.
+	 * @param size  The size of the board.
+	 * @param index The index (row * size + column) of the value.
+	 * @param value The value of which the distance needs to be calculated.
+	 * @return The distance between the given index and the solution position of the value.
+	 */
+	static int getDistance(int size, int index, int value) {
+		int goalIndex = value - 1;
+		return Math.abs(index / size - goalIndex / size) + Math.abs(index % size - goalIndex % size);
 	}
 
-	// 
-	
 	/**
 	 * Does this board equal y. Two boards are equal when they both were constructed
 	 *  using tiles[][] arrays that contained the same values.
 	 * @param y The board which needs to be compared with.
-	 * @return True when the tiles[][] array contain the same values; otherwise false.
+	 * @return True when the packed tiles contain the same values; otherwise false.
 	 */
 	@Override
 	public boolean equals(Object y) {
@@ -95,9 +215,10 @@ public class Board {
 			return false;
 
 		Board other = (Board) y;
-		return Arrays.deepEquals(tiles, other.tiles);
+		return this.size == other.size && this.packedTiles == other.packedTiles && this.zobristKey == other.zobristKey
+				&& Arrays.equals(this.tileBytes, other.tileBytes);
 	}
-	
+
 	// Since we override equals(), we must also override hashCode(). When two
 	// objects are
 	// equal according to equals() they must return the same hashCode. More info:
@@ -106,20 +227,37 @@ public class Board {
 	// - http://www.ibm.com/developerworks/library/j-jtp05273/
 	@Override
 	public int hashCode() {
-		return Arrays.deepHashCode(tiles);
+		if (this.isPacked()) {
+			return Long.hashCode(packedTiles * 0x9E3779B97F4A7C15L);
+		}
+		return Long.hashCode(zobristKey);
 	}
- 
+
+	/**
+	 * Returns a 64-bit key of the board, to be used in primitive hash tables like the TranspositionTable.
+	 *  For boards up to 4x4 the key is the packed tiles, so two boards are equal exactly when their keys are equal.
+	 *  For larger boards the key is the Zobrist hash of the tiles, which every neighbour derives from this board in constant time.
+	 * @return The 64-bit key of the board.
+	 */
+	public long getKey() {
+		if (this.isPacked()) {
+			return packedTiles;
+		}
+		return zobristKey;
+	}
+
 	/**
 	 * Returns a Collection of all neighbouring board positions.
 	 * @return a Collection of all neighbouring board positions.
 	 */
 	public Collection<Board> neighbors() {
-		Collection<Board> neighbors = new ArrayList<>();
-		int[] emptyPosition = this.getPositionOfValue(0,this.getTiles());
+		Collection<Board> neighbors = new ArrayList<>(4);
+		int row = this.getBlankIndex() / this.getSize();
+		int column = this.getBlankIndex() % this.getSize();
 		MoveDirection[] directions = new MoveDirection[] {MoveDirection.LEFT, MoveDirection.TOP, MoveDirection.RIGHT, MoveDirection.BOTTOM};
 		for (MoveDirection direction : directions) {
-			if(isValidMove(emptyPosition[0], emptyPosition[1], direction)) {
-				neighbors.add(new Board(this.swapTiles(emptyPosition[0], emptyPosition[1], direction)));
+			if(isValidMove(row, column, direction)) {
+				neighbors.add(this.moveBlank(this.getTargetIndex(this.getBlankIndex(), direction)));
 			}
 		}
 		return neighbors;
@@ -131,131 +269,164 @@ public class Board {
 	 */
 	@Override
 	public String toString() {
-		String result = "";
+		StringBuilder result = new StringBuilder();
 		for (int row = 0; row < this.getSize(); row++) {
 			for (int column = 0; column < this.getSize(); column++) {
 				int val = this.getValue(row, column);
-				result +=  (val == 0 ? " " : val);
-				result += ( (column == this.getSize()-1) ? "" : "\t" );
+				result.append(val == 0 ? " " : Integer.toString(val));
+				result.append( (column == this.getSize()-1) ? "" : "\t" );
 			}
-			result+= "\n";
+			result.append("\n");
 		}
-		return result;
+		return result.toString();
 	}
 
 	/**
 	 * Checks whether the board is solvable.
-	 *  The empty tile is moved to the correct position (bottom, right) position.
+	 *  A move of the empty tile within a row does not change the order of the other tiles, a move to another row
+	 *  moves one tile over size-1 others. So the parity of the number of inversions (pairs of tiles in the wrong order,
+	 *  reading row by row and skipping the empty tile) plus, for even sizes, the number of rows between the empty tile
+	 *  and the bottom row never changes; it is even for the solved board.
+	 *  The inversions are counted with a Fenwick tree in O(size^2 log(size)) time.
 	 * @return True when the initial board is solvable; otherwise false.
 	 */
 	public boolean isSolvable() {
-		int[][] emptyTileEnd = this.getEmptyTileAtEndBoard();
-		int[] lookupHelper = this.lookupArray(emptyTileEnd);
-		double subresult =1;
-		for (int j = 1; j < (this.getSize()*this.getSize()); j++) {
-			for (int i = 1; i < j; i++) {
-				double numerator   = (lookupHelper[j] -lookupHelper[i]);
-				double denominator = (j-i);
-				subresult *= (numerator/denominator);
+		int cells = this.getSize() * this.getSize();
+		int[] tree = new int[cells];
+		long inversions = 0;
+		int nbrSeen = 0;
+		for (int index = 0; index < cells; index++) {
+			int value = this.getValue(index);
+			if (value == 0) {
+				continue;
+			}
+			int nbrSmaller = 0;
+			for (int i = value; i > 0; i -= i & -i) {
+				nbrSmaller += tree[i];
 			}
+			inversions += nbrSeen - nbrSmaller;
+			for (int i = value; i < cells; i += i & -i) {
+				tree[i]++;
+			}
+			nbrSeen++;
+		}
+		if (this.getSize() % 2 == 0) {
+			inversions += this.getSize() - 1 - this.getBlankIndex() / this.getSize();
 		}
-		return subresult>=0;
+		return inversions % 2 == 0;
 	}
 
 	/**
-	 * Returns the tiles variable.
-	 * @return the tiles variable.
+	 * Returns the tiles of the board as a new 2D array.
+	 *  Changing the returned array does not change the board.
+	 * @return the tiles of the board.
 	 */
 	public int[][] getTiles() {
+		int[][] tiles = new int[this.getSize()][this.getSize()];
+		for (int row = 0; row < this.getSize(); row++) {
+			for (int column = 0; column < this.getSize(); column++) {
+				tiles[row][column] = this.getValue(row, column);
+			}
+		}
 		return tiles;
 	}
 
 	/**
-	 * Sets the tites variable.
-	 * @param tiles The titles which will be set for the tiles instance variable.
-	 * @throws IllegalArgumentException When tiles equals null or when the tiles parameter does not represent a matrix.
-	 *                                  | tiles == null || !this.isSquare(tiles)
-	 * @post The tiles variables is set.
-	 *       | new.getTiles() == tiles
+	 * Packs the given tiles and stores them.
+	 * @param tiles The titles which will be packed and stored.
+	 * @throws IllegalArgumentException When tiles equals null, when the tiles parameter does not represent a matrix,
+	 *                                  when it is larger than MAX_SIZE
+	 *                                  or when the values are not a permutation of 0 up to size*size-1.
+	 *                                  | tiles == null || !this.isSquare(tiles) || tiles.length > MAX_SIZE || !this.isPermutation(tiles)
+	 * @post The packed tiles contain the values of the given tiles.
+	 *       | Arrays.deepEquals(new.getTiles(), tiles)
 	 */
 	private void setTiles(int[][] tiles) {
 		if (tiles == null || !this.isSquare(tiles)) {
 			throw new IllegalArgumentException("Cannot set a tiles equals to null or when it is not a square");
 		}
-		this.tiles = tiles;
-	}
-
-	/**
-	 * Returns a deep copy of the given tiles variable.
-	 *   All the values need to be copied to another 2D array.
-	 *   (This copy is returned)
-	 * @param tiles The tiles 2D array of which a deep copy has to be taken.
-	 * @return A deep copy of the given tiles parameter.
-	 */
-	private int[][] getDeepCopy(int[][] tiles) {
-		if (tiles == null) {
-			return null;
+		if (tiles.length > MAX_SIZE) {
+			throw new IllegalArgumentException("The size of a board cannot be larger than " + MAX_SIZE);
+		}
+		if (!this.isPermutation(tiles)) {
+			throw new IllegalArgumentException("The tiles need to contain every value from 0 up to size*size-1 exactly once");
 		}
-		int[][] copy = new int[tiles.length][];
-		for (int i = 0; i < tiles.length; i++) {
-			copy[i] = Arrays.copyOf(tiles[i], tiles[i].length);
+		this.size = tiles.length;
+		if (!this.isPacked()) {
+			this.tileBytes = new byte[this.getSize() * this.getSize() * this.getBytesPerTile()];
 		}
-		return copy;
+		for (int row = 0; row < this.getSize(); row++) {
+			for (int column = 0; column < this.getSize(); column++) {
+				int index = row * this.getSize() + column;
+				if (tiles[row][column] == 0) {
+					this.blankIndex = index;
+				}
+				this.setValue(index, tiles[row][column]);
+			}
+		}
+		if (!this.isPacked()) {
+			this.zobristKey = this.computeZobristKey();
+		}
+		this.hammingDistance = this.computeHamming();
+		this.manhattanDistance = this.computeManhattan();
 	}
 
 	/**
-	 * Returns the position where the given value is located.
-	 *  When the value cannot be found, null is returned.
-	 * @param value The value of which the position needs to be returned.
-	 * @param tiles The tiles in which the value needs to searched.
-	 * @return The position if the tiles parameter contains the value; otherwise null.
-	 *         The position first element is the row index, the second element is the column index.
-	 * @throws IllegalArgumentException when the tiles variable equals null.
+	 * Returns the Zobrist hash of the tiles: the XOR of the Zobrist keys of all tiles except the empty tile.
+	 * @return The Zobrist hash of the tiles.
 	 */
-	private int[] getPositionOfValue(int value, int[][] tiles) {
-		if(tiles == null) {
-			throw new IllegalArgumentException("Tiles cannot be null");
-		}
-		int size = tiles.length;
-		for (int row = 0; row < size; row++) {
-			for (int column = 0; column < size; column++) {
-				if(this.getValue(row, column) == value) {
-					return new int[] {row,column};	
-				}
+	private long computeZobristKey() {
+		int cells = this.getSize() * this.getSize();
+		long hash = 0;
+		for (int index = 0; index < cells; index++) {
+			int value = this.getValue(index);
+			if (value != 0) {
+				hash ^= ZobristKeys.get(this.getSize(), index, value);
 			}
 		}
-		return null;
+		return hash;
 	}
-	
+
 	/**
-	 * Returns the lookupArray of the given tiles.
-	 *  A lookupArray is an array which stores the position of the value.
-	 *  The index is the value of a original tile, the element on that index is the position of the original tile.
-	 * @param tiles The tiles 2D array of which a lookupArray needs to be created.
-	 * @return The computed lookupArray.
+	 * Stores the given value on the given index of the packed tiles.
+	 *  Only used while the board is being initialised.
+	 * @param index The index (row * size + column) of the value.
+	 * @param value The value which will be stored.
 	 */
-	private int[] lookupArray(int[][] tiles) {
-		int[] lookup = new int[tiles.length*tiles.length];
-		for (int i = 0; i < tiles.length; i++) {
-			for (int j = 0; j < tiles.length; j++) {
-				lookup[tiles[i][j]] = (i*tiles.length) + j + 1;
-			}
+	private void setValue(int index, int value) {
+		if (this.isPacked()) {
+			this.packedTiles = (this.packedTiles & ~(TILE_MASK << (index * BITS_PER_TILE)))
+					| ((long) value << (index * BITS_PER_TILE));
+		} else if (this.getBytesPerTile() == 1) {
+			this.tileBytes[index] = (byte) value;
+		} else {
+			this.tileBytes[2 * index] = (byte) (value >>> 8);
+			this.tileBytes[2 * index + 1] = (byte) value;
 		}
-		return lookup;
 	}
-	
+
 	/**
-	 * Returns the solution XY-position of the given value.
-	 * @param value The value of which the solution position needs to be calculated.
-	 * @return The solution position of the given value. It is an array of 2 integers.
-	 *         The first integer is the row index, the second is the column index.
+	 * Returns a new board in which the empty tile is swapped with the tile on the given index.
+	 *  Only the moved tile changes position, so both distances and the Zobrist hash are derived from those of this board.
+	 * @param target The index of the tile which will be moved into the empty position.
+	 * @return The board after the move.
 	 */
-	private int[] getXYPosition(int value) {
-		int row = (int) Math.ceil((double) value/ (double) this.getSize()) -1;
-		int column = (int) (value -1) % this.getSize();
-		return new int[] {row,column };
+	Board moveBlank(int target) {
+		int tile = this.getValue(target);
+		int hamming = this.hamming() - (target != tile - 1 ? 1 : 0) + (this.getBlankIndex() != tile - 1 ? 1 : 0);
+		int manhattan = this.manhattan() - this.getDistance(target, tile) + this.getDistance(this.getBlankIndex(), tile);
+		if (this.isPacked()) {
+			long packed = (this.packedTiles & ~(TILE_MASK << (target * BITS_PER_TILE)))
+					| ((long) tile << (this.getBlankIndex() * BITS_PER_TILE));
+			return new Board(this.getSize(), packed, null, 0L, target, hamming, manhattan);
+		}
+		long key = this.zobristKey ^ ZobristKeys.get(this.getSize(), target, tile) ^ ZobristKeys.get(this.getSize(), this.getBlankIndex(), tile);
+		Board moved = new Board(this.getSize(), 0L, this.tileBytes.clone(), key, target, hamming, manhattan);
+		moved.setValue(this.getBlankIndex(), tile);
+		moved.setValue(target, 0);
+		return moved;
 	}
-	
+
 	/**
 	 * Checks whether a move is valid.
 	 *  A move is valid when it does not go out of the matrix borders.
@@ -284,26 +455,35 @@ public class Board {
 		}
 		return result;
 	}
-	
+
 	/**
-	 * Swaps the title on the given position with the tile of the given move direction.
-	 *  By default the tile swap is done on a deep copy of the titles of the board.
-	 * @param row       The first tile row index.
-	 * @param column    The first tile column index.
-	 * @param direction The direction with which tile needs to be swapped.
-	 * @return The tiles (2D array) with the performed swap.
+	 * Returns the index reached when going one step in the given direction from the given index.
+	 * @param index     The starting index.
+	 * @param direction The direction of the step.
+	 * @return The index of the neighbouring position in the given direction.
 	 */
-	private int[][] swapTiles(int row, int column, MoveDirection direction){
-		return this.swapTiles(row, column, direction, this.getDeepCopy(this.getTiles()));
+	private int getTargetIndex(int index, MoveDirection direction) {
+		switch (direction) {
+		case LEFT:
+			return index - 1;
+		case RIGHT:
+			return index + 1;
+		case TOP:
+			return index - this.getSize();
+		case BOTTOM:
+			return index + this.getSize();
+		default:
+			throw new IllegalArgumentException("Cannot make the move on the board");
+		}
 	}
-	
+
 	/**
 	 * Swaps the title on the given position with the tile of the given move direction.
 	 *  The swap is performed on the given 2D tiles array.
 	 * @param row       The first tile row index.
 	 * @param column    The first tile column index.
 	 * @param direction The direction with which tile needs to be swapped.
-	 * @param tiles     The tiles (of which first a deep copy will be taken) of which the swap will be done.
+	 * @param tiles     The tiles of which the swap will be done.
 	 * @return Swaps the tile with the tile in the given direction.
 	 */
 	private int[][] swapTiles(int row, int column, MoveDirection direction, int[][] tiles){
@@ -320,14 +500,14 @@ public class Board {
 			throw new IllegalArgumentException("Cannot make the move on the board");
 		}
 	}
-	
+
 	/**
-	 * Creates a deep copy of the tiles, with the 2 element swapped on the corresponding indexes.
+	 * Swaps the 2 elements on the corresponding indexes of the given tiles.
 	 * @param frow  The row index of the first element which will be swapped.
 	 * @param fcol  The column index of the first element which will be swapped.
 	 * @param srow  The row index of the second element which will be swapped.
 	 * @param scol  The column index of the second element which will be swapped.
-	 * @param tiles The tiles (of which first a deep copy will be taken) of which the swap will be done.
+	 * @param tiles The tiles of which the swap will be done.
 	 * @return The 2D tiles array after the swap.
 	 */
 	private int[][] swap(int frow, int fcol, int srow, int scol, int[][] tiles){
@@ -336,45 +516,87 @@ public class Board {
 		tiles[frow][fcol] = temp;
 		return tiles;
 	}
-	
+
 	/**
 	 * Moves the zero value with valid moves to the end position (bottom right position).
 	 * @return The tiles 2D array where the zero is in its end position.
 	 */
 	public int[][] getEmptyTileAtEndBoard(){
-		int[] pos = this.getPositionOfValue(0,this.getTiles());
-		int rowMoves = this.getSize() - pos[0] -1;
-		int colMoves = this.getSize() - pos[1] -1;
-		int[][] currentTiles = this.getDeepCopy(this.getTiles());
+		int row = this.getBlankIndex() / this.getSize();
+		int column = this.getBlankIndex() % this.getSize();
+		int rowMoves = this.getSize() - row -1;
+		int colMoves = this.getSize() - column -1;
+		int[][] currentTiles = this.getTiles();
 		for (int i = 0; i < colMoves; i++) {
-			currentTiles = this.swapTiles(pos[0], pos[1]+i, MoveDirection.RIGHT, currentTiles);
+			currentTiles = this.swapTiles(row, column+i, MoveDirection.RIGHT, currentTiles);
 		}
 		for (int i = 0; i < rowMoves; i++) {
-			currentTiles = this.swapTiles(pos[0]+i, pos[1]+colMoves, MoveDirection.BOTTOM, currentTiles);
+			currentTiles = this.swapTiles(row+i, column+colMoves, MoveDirection.BOTTOM, currentTiles);
 		}
 		return currentTiles;
 	}
-	
+
 	/**
 	 * Returns the value on the given row index and column index.
 	 * @param row    The row index of the requested value.
 	 * @param column The column index of the requested value.
-	 * @return The value on the given value.
-	 *         | this.getTiles()[row][column]
+	 * @return The value on the given position.
+	 *         | this.getValue(row * this.getSize() + column)
 	 */
 	private int getValue(int row, int column) {
-		return this.getTiles()[row][column];
+		return this.getValue(row * this.getSize() + column);
+	}
+
+	/**
+	 * Returns the value on the given index.
+	 * @param index The index (row * size + column) of the requested value.
+	 * @return The value on the given index.
+	 */
+	@Override
+	public int getValue(int index) {
+		if (this.isPacked()) {
+			return (int) ((this.packedTiles >>> (index * BITS_PER_TILE)) & TILE_MASK);
+		}
+		if (this.getBytesPerTile() == 1) {
+			return this.tileBytes[index] & 0xFF;
+		}
+		return ((this.tileBytes[2 * index] & 0xFF) << 8) | (this.tileBytes[2 * index + 1] & 0xFF);
+	}
+
+	/**
+	 * Returns the index (row * size + column) of the empty tile.
+	 * @return the index of the empty tile.
+	 */
+	@Override
+	public int getBlankIndex() {
+		return blankIndex;
 	}
 
 	/**
 	 * Returns the size of the tiles.
 	 * @return the size of the tiles.
-	 *         | this.getTiles().length
 	 */
-	private int getSize() {
-		return this.getTiles().length;
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns whether the tiles are packed in a single long.
+	 * @return True when the size is at most MAX_PACKED_SIZE; otherwise false.
+	 */
+	private boolean isPacked() {
+		return this.getSize() <= MAX_PACKED_SIZE;
 	}
-	
+
+	/**
+	 * Returns the number of bytes used per tile when the tiles are stored in the tile bytes.
+	 * @return 1 when every value fits in an unsigned byte; otherwise 2.
+	 */
+	private int getBytesPerTile() {
+		return (this.getSize() * this.getSize() <= 256) ? 1 : 2;
+	}
+
 	/**
 	 * Checks whether the given tiles matrix (2D-array) is square.
 	 * @param tiles The tiles matrix which will be check.
@@ -385,30 +607,43 @@ public class Board {
 			throw new IllegalArgumentException("Tiles cannot be null");
 		}
 		int length = tiles.length;
-		for (int i = 0; length < i; i++) {
-			if (tiles[i].length != length) {
+		if (length == 0) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (tiles[i] == null || tiles[i].length != length) {
 				return false;
 			}
 		}
 		return true;
 	}
-	
+
 	/**
-	 * Returns whether the Board is in its solved state.
-	 *  True when all the values are in there end position.
-	 * @return True when all the values are in there end position; otherwise false.
+	 * Checks whether the given square tiles matrix contains every value from 0 up to size*size-1 exactly once.
+	 * @param tiles The square tiles matrix which will be checked.
+	 * @return True when every value occurs exactly once; otherwise false.
 	 */
-	public boolean isSolved() {
-		int current = 1;
-		for (int row = 0; row < this.getSize(); row++) {
-			for (int col = 0; col < this.getSize(); col++) {
-				if(this.getValue(row, col) != current && current != (this.getSize()*this.getSize()) ) {
+	private boolean isPermutation(int[][] tiles) {
+		boolean[] seen = new boolean[tiles.length * tiles.length];
+		for (int[] row : tiles) {
+			for (int value : row) {
+				if (value < 0 || value >= seen.length || seen[value]) {
 					return false;
 				}
-				current++;
+				seen[value] = true;
 			}
 		}
 		return true;
 	}
 
+	/**
+	 * Returns whether the Board is in its solved state.
+	 *  True when all the values are in there end position, which is exactly when the Hamming distance is zero.
+	 * @return True when all the values are in there end position; otherwise false.
+	 *         | this.hamming() == 0
+	 */
+	public boolean isSolved() {
+		return this.hamming() == 0;
+	}
+
 }
@@ -0,0 +1,215 @@
+package gna;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A board file gives random access to the records of a binary board file, written by a BoardFileWriter.
+ *  The records are memory mapped, in chunks of whole records when the file is larger than one mapping allows,
+ *  and every record is read directly by its index. Reading is thread-safe.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class BoardFile {
+
+	/**
+	 * Variable storing the size of the boards.
+	 */
+	private final int size;
+
+	/**
+	 * Variable storing the maximum number of moves of a solution; 0 when the file has no solutions.
+	 */
+	private final int maxNbrMoves;
+
+	/**
+	 * Variable storing the number of records.
+	 */
+	private final long nbrRecords;
+
+	/**
+	 * Variable storing the number of bytes of one record.
+	 */
+	private final int recordLength;
+
+	/**
+	 * Variable storing the number of records in every chunk.
+	 */
+	private final int recordsPerChunk;
+
+	/**
+	 * Variable storing the mapped chunks of records.
+	 */
+	private final MappedByteBuffer[] chunks;
+
+	/**
+	 * Initialises a board file with all the given variables.
+	 * @param size            The size of the boards.
+	 * @param maxNbrMoves     The maximum number of moves of a solution.
+	 * @param nbrRecords      The number of records.
+	 * @param recordLength    The number of bytes of one record.
+	 * @param recordsPerChunk The number of records in every chunk.
+	 * @param chunks          The mapped chunks of records.
+	 */
+	private BoardFile(int size, int maxNbrMoves, long nbrRecords, int recordLength, int recordsPerChunk, MappedByteBuffer[] chunks) {
+		this.size = size;
+		this.maxNbrMoves = maxNbrMoves;
+		this.nbrRecords = nbrRecords;
+		this.recordLength = recordLength;
+		this.recordsPerChunk = recordsPerChunk;
+		this.chunks = chunks;
+	}
+
+	/**
+	 * Maps the board file on the given path.
+	 *  The mapping stays valid after the file is closed.
+	 * @param path The path of the file.
+	 * @return The board file.
+	 * @throws IOException When the file cannot be read, is not a board file or is truncated.
+	 */
+	public static BoardFile load(Path path) throws IOException {
+		LoadEvent event = new LoadEvent();
+		event.begin();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			event.kind = "board file";
+			event.path = path.toString();
+			event.bytes = channel.size();
+			if (channel.size() < BoardFileWriter.HEADER_LENGTH) {
+				throw new IOException(path + " is not a board file");
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BoardFileWriter.HEADER_LENGTH);
+			if (header.getInt() != BoardFileWriter.MAGIC) {
+				throw new IOException(path + " is not a board file");
+			}
+			int version = header.getInt();
+			if (version != BoardFileWriter.VERSION) {
+				throw new IOException(path + " has unsupported version " + version);
+			}
+			int size = header.getInt();
+			int maxNbrMoves = header.getInt();
+			long nbrRecords = header.getLong();
+			int recordLength = header.getInt();
+			if (size <= 0 || maxNbrMoves < 0 || nbrRecords < 0 || recordLength != BoardFileWriter.getRecordLength(size, maxNbrMoves)
+					|| BoardFileWriter.HEADER_LENGTH + nbrRecords * recordLength > channel.size()) {
+				throw new IOException(path + " is truncated or corrupt");
+			}
+			int recordsPerChunk = Integer.MAX_VALUE / recordLength;
+			MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((nbrRecords + recordsPerChunk - 1) / recordsPerChunk)];
+			for (int i = 0; i < chunks.length; i++) {
+				long firstRecord = (long) i * recordsPerChunk;
+				long length = Math.min(recordsPerChunk, nbrRecords - firstRecord) * recordLength;
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, BoardFileWriter.HEADER_LENGTH + firstRecord * recordLength, length);
+			}
+			return new BoardFile(size, maxNbrMoves, nbrRecords, recordLength, recordsPerChunk, chunks);
+		} finally {
+			event.commit();
+		}
+	}
+
+	/**
+	 * Returns the size of the boards.
+	 * @return the size of the boards.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of records.
+	 * @return the number of records.
+	 */
+	public long getNbrRecords() {
+		return nbrRecords;
+	}
+
+	/**
+	 * Returns whether the records contain solutions.
+	 * @return True when the records contain solutions; otherwise false.
+	 */
+	public boolean hasSolutions() {
+		return maxNbrMoves > 0;
+	}
+
+	/**
+	 * Returns the board of the given record.
+	 * @param index The index of the record.
+	 * @return The board of the record.
+	 * @throws IndexOutOfBoundsException When there is no record with the given index.
+	 * @throws IllegalArgumentException When the tiles of the record are not valid.
+	 */
+	public Board getBoard(long index) {
+		ByteBuffer chunk = this.getChunk(index);
+		int offset = this.getOffset(index);
+		int cells = size * size;
+		int[][] tiles = new int[size][size];
+		long packed = (size <= 4) ? chunk.getLong(offset) : 0;
+		for (int i = 0; i < cells; i++) {
+			int value;
+			if (size <= 4) {
+				value = (int) ((packed >>> (4 * i)) & 0xF);
+			} else if (cells > 256) {
+				value = chunk.getShort(offset + 2 * i) & 0xFFFF;
+			} else {
+				value = chunk.get(offset + i) & 0xFF;
+			}
+			tiles[i / size][i % size] = value;
+		}
+		return new Board(tiles);
+	}
+
+	/**
+	 * Returns the solution of the given record.
+	 * @param index The index of the record.
+	 * @return The moves which solve the board of the record; null when the record has no solution.
+	 * @throws IndexOutOfBoundsException When there is no record with the given index.
+	 * @throws IllegalArgumentException When the record is corrupt.
+	 */
+	public MoveSequence getMoves(long index) {
+		if (!this.hasSolutions()) {
+			this.getChunk(index);
+			return null;
+		}
+		ByteBuffer chunk = this.getChunk(index);
+		int offset = this.getOffset(index) + BoardFileWriter.getRecordLength(size, 0);
+		int nbrMoves = chunk.getInt(offset);
+		if (nbrMoves < 0) {
+			return null;
+		}
+		if (nbrMoves > maxNbrMoves) {
+			throw new IllegalArgumentException("Record " + index + " has more moves than the file can hold");
+		}
+		long[] packedMoves = new long[BoardFileWriter.getNbrMoveLongs(nbrMoves)];
+		for (int i = 0; i < packedMoves.length; i++) {
+			packedMoves[i] = chunk.getLong(offset + Integer.BYTES + Long.BYTES * i);
+		}
+		return new MoveSequence(this.getBoard(index), packedMoves, nbrMoves);
+	}
+
+	/**
+	 * Returns the chunk which contains the given record.
+	 * @param index The index of the record.
+	 * @return The chunk of the record.
+	 * @throws IndexOutOfBoundsException When there is no record with the given index.
+	 */
+	private ByteBuffer getChunk(long index) {
+		if (index < 0 || index >= nbrRecords) {
+			throw new IndexOutOfBoundsException("Record " + index + " of " + nbrRecords);
+		}
+		return chunks[(int) (index / recordsPerChunk)];
+	}
+
+	/**
+	 * Returns the position of the given record in its chunk.
+	 * @param index The index of the record.
+	 * @return The position of the record.
+	 */
+	private int getOffset(long index) {
+		return (int) (index % recordsPerChunk) * recordLength;
+	}
+
+}
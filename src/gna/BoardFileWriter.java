@@ -0,0 +1,209 @@
+package gna;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The board file writer writes boards of one size, and optionally their solutions, to a binary board file.
+ *  The file starts with a header of HEADER_LENGTH bytes: the magic number, the version, the board size,
+ *  the maximum number of moves of a solution (0 when the file has no solutions), the number of records (a long)
+ *  and the length of a record. Then follow the records, which all have the same length:
+ *  the tiles (boards up to 4x4 in one long with 4 bits per tile, larger boards with one or two bytes per tile),
+ *  followed, when the file has solutions, by the number of moves (an int, -1 when there is no solution)
+ *  and the moves packed like in a MoveSequence, in as many longs as the maximum number of moves needs.
+ *  All numbers are big-endian. Because the records have a fixed length, a BoardFile can read any record directly.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class BoardFileWriter implements AutoCloseable {
+
+	/**
+	 * Variable storing the magic number at the start of every board file ("GBRD").
+	 */
+	public static final int MAGIC = 0x47425244;
+
+	/**
+	 * Variable storing the version of the file format.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Variable storing the number of bytes of the header.
+	 */
+	static final int HEADER_LENGTH = 32;
+
+	/**
+	 * Variable storing the position of the number of records in the header.
+	 */
+	static final int COUNT_POSITION = 16;
+
+	/**
+	 * Variable storing the channel of the file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Variable storing the records which were not written to the channel yet.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Variable storing the size of the boards.
+	 */
+	private final int size;
+
+	/**
+	 * Variable storing the maximum number of moves of a solution.
+	 */
+	private final int maxNbrMoves;
+
+	/**
+	 * Variable storing the number of records written.
+	 */
+	private long nbrRecords;
+
+	/**
+	 * Initialises a writer of a new board file, an existing file is replaced.
+	 * @param path        The path of the file.
+	 * @param size        The size of all the boards.
+	 * @param maxNbrMoves The maximum number of moves of a solution; 0 when the file has no solutions.
+	 * @throws IOException When the file cannot be created.
+	 * @throws IllegalArgumentException When the size is not between 1 and Board.MAX_SIZE, which the readers would reject,
+	 *                                  or the maximum number of moves is negative.
+	 */
+	public BoardFileWriter(Path path, int size, int maxNbrMoves) throws IOException {
+		if (size <= 0 || size > Board.MAX_SIZE || maxNbrMoves < 0) {
+			throw new IllegalArgumentException("The size needs to be between 1 and " + Board.MAX_SIZE
+					+ " and the maximum number of moves cannot be negative");
+		}
+		this.size = size;
+		this.maxNbrMoves = maxNbrMoves;
+		this.buffer = ByteBuffer.allocate(Math.max(1 << 16, HEADER_LENGTH + getRecordLength(size, maxNbrMoves)));
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(size);
+		buffer.putInt(maxNbrMoves);
+		buffer.putLong(0);
+		buffer.putInt(getRecordLength(size, maxNbrMoves));
+		buffer.putInt(0);
+	}
+
+	/**
+	 * Writes a record of the given board without a solution.
+	 * @param board The board.
+	 * @throws IOException When the file cannot be written.
+	 * @effect | this.write(board, null)
+	 */
+	public void write(Board board) throws IOException {
+		this.write(board, null);
+	}
+
+	/**
+	 * Writes a record of the given board and its solution.
+	 * @param board The board.
+	 * @param moves The moves which solve the board; null when there is no solution.
+	 * @throws IOException When the file cannot be written.
+	 * @throws IllegalArgumentException When the board does not have the size of the file, when the moves do not start from the board,
+	 *                                  or when the file cannot hold the moves.
+	 */
+	public void write(Board board, MoveSequence moves) throws IOException {
+		if (board.getSize() != size) {
+			throw new IllegalArgumentException("The board needs to have size " + size);
+		}
+		if (moves != null && (moves.size() > maxNbrMoves || !board.equals(moves.getInitialBoard()))) {
+			throw new IllegalArgumentException("The moves need to start from the board and have at most " + maxNbrMoves + " moves");
+		}
+		if (buffer.remaining() < getRecordLength(size, maxNbrMoves)) {
+			this.flush();
+		}
+		int cells = size * size;
+		if (size <= 4) {
+			long packed = 0;
+			for (int index = 0; index < cells; index++) {
+				packed |= (long) board.getValue(index) << (4 * index);
+			}
+			buffer.putLong(packed);
+		} else {
+			for (int index = 0; index < cells; index++) {
+				if (cells > 256) {
+					buffer.putShort((short) board.getValue(index));
+				} else {
+					buffer.put((byte) board.getValue(index));
+				}
+			}
+		}
+		if (maxNbrMoves > 0) {
+			buffer.putInt(moves == null ? -1 : moves.size());
+			int nbrLongs = getNbrMoveLongs(maxNbrMoves);
+			for (int i = 0; i < nbrLongs; i++) {
+				buffer.putLong(moves != null && i < moves.getNbrPackedLongs() ? moves.getPackedLong(i) : 0);
+			}
+		}
+		nbrRecords++;
+	}
+
+	/**
+	 * Returns the number of records written.
+	 * @return the number of records written.
+	 */
+	public long getNbrRecords() {
+		return nbrRecords;
+	}
+
+	/**
+	 * Writes the remaining records and the number of records, and closes the file.
+	 * @throws IOException When the file cannot be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			this.flush();
+			ByteBuffer count = ByteBuffer.allocate(Long.BYTES);
+			count.putLong(nbrRecords).flip();
+			while (count.hasRemaining()) {
+				channel.write(count, COUNT_POSITION + count.position());
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Writes the buffered bytes to the channel.
+	 * @throws IOException When the file cannot be written.
+	 */
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Returns the number of bytes of one record.
+	 * @param size        The size of the boards.
+	 * @param maxNbrMoves The maximum number of moves of a solution; 0 when there are no solutions.
+	 * @return The length of a record.
+	 */
+	static int getRecordLength(int size, int maxNbrMoves) {
+		int cells = size * size;
+		int tileBytes = (size <= 4) ? Long.BYTES : cells * (cells > 256 ? 2 : 1);
+		return tileBytes + (maxNbrMoves > 0 ? Integer.BYTES + Long.BYTES * getNbrMoveLongs(maxNbrMoves) : 0);
+	}
+
+	/**
+	 * Returns the number of longs in which the given number of moves are packed.
+	 * @param nbrMoves The number of moves.
+	 * @return The number of longs.
+	 */
+	static int getNbrMoveLongs(int nbrMoves) {
+		return (nbrMoves + 31) / 32;
+	}
+
+}
@@ -1,12 +1,12 @@
 package gna;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.Scanner;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 /**
  * The boardReader will help by reading board our of textfiles and,
  *  and returning it in board objects.
+ *  Files with many boards are read with a BulkBoardReader.
  * @author Dries Janse
  * @version 1.0
  */
@@ -14,22 +14,15 @@ public class BoardReader {
 
 	/**
 	 * Reads a file containing a puzzle an converts it to a Board.
+	 *  Only the first board of the file is read.
 	 * @param puzzlePath  The path of the file containing the puzzle.
-	 * @return The board generated out of the puzzle file.
+	 * @return The board generated out of the puzzle file; null when the file cannot be read or contains no board.
+	 * @throws IllegalArgumentException When the board in the file is not written correctly or its tiles are not valid.
 	 */
-	@SuppressWarnings("resource")
 	public static Board getBoardWithData(String puzzlePath) {
-		Scanner s;
-		try {
-			s = new Scanner(new File(puzzlePath));
-			int size = s.nextInt();
-			int[][] tiles = new int[size][size];
-			for (int i = 0; i < size; i++)
-				for (int j = 0; j < size; j++)
-					tiles[i][j] = s.nextInt();
-			
-			return new Board(tiles);
-		} catch (FileNotFoundException e) {
+		try (BulkBoardReader reader = new BulkBoardReader(Paths.get(puzzlePath))) {
+			return reader.hasNext() ? reader.next() : null;
+		} catch (IOException e) {
 			e.printStackTrace();
 		}
 		
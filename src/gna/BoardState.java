@@ -5,6 +5,7 @@ import java.util.Collection;
 /**
  * A board state contains the previous BoardState (this can be null if there is no previous BoardState.
  *  It also contains the current board, and the number of moves needed to go from the initial board up to this board.
+ *  The heuristic value of the current board and the resulting priority are computed once, when the state is created.
  * 
  * @author Dries Janse
  * @version 1.0
@@ -26,20 +27,37 @@ public class BoardState {
 	 */
 	private int nbrMoves;
 	
+	/**
+	 * Variable storing the heuristic value of the current board.
+	 */
+	private int heuristic;
+	
 	/**
 	 * Initialises a board with all the given variables.
 	 * @param currentBoard  The board of the current state.
 	 * @param previousState The previous state of the board.
 	 * @param nbrMoves      The number of moves needed to get to this state.
+	 * @param heuristic     The heuristic value of the current board.
 	 * @effect All the given variables are set.
 	 *         |this.setCurrentBoard(currentBoard);
 	 *         |this.setPreviousState(previousState);
 	 *         |this.setNbrMoves(nbrMoves);
+	 *         |this.setHeuristic(heuristic);
 	 */
-	public BoardState(Board currentBoard, BoardState previousState, int nbrMoves) {
+	public BoardState(Board currentBoard, BoardState previousState, int nbrMoves, int heuristic) {
 		this.setCurrentBoard(currentBoard);
 		this.setPreviousState(previousState);
 		this.setNbrMoves(nbrMoves);
+		this.setHeuristic(heuristic);
+	}
+	
+	/**
+	 * Returns the priority of the state: the number of moves plus the heuristic value.
+	 * @return The priority of the state.
+	 *         | this.getNbrMoves() + this.getHeuristic()
+	 */
+	public int getPriority() {
+		return this.getNbrMoves() + this.getHeuristic();
 	}
 
 	/**
@@ -68,6 +86,7 @@ public class BoardState {
 	
 	/**
 	 * Checks whether the current board is solved or not.
+	 *  This is answered from the Hamming distance cached in the board.
 	 * @return True when the current board is solved; otherwise false.
 	 */
 	public boolean isCurrentSolved() {
@@ -128,4 +147,22 @@ public class BoardState {
 		this.nbrMoves = nbrMoves;
 	}
 	
+	/**
+	 * Returns the heuristic value variable.
+	 * @return The heuristic value variable.
+	 */
+	public int getHeuristic() {
+		return heuristic;
+	}
+	
+	/**
+	 * Sets the heuristic value variable.
+	 * @param heuristic The heuristic value to which the heuristic variable will be set.
+	 * @effect The heuristic variable equals the heuristic parameter
+	 *         | new.getHeuristic() == heuristic
+	 */
+	private void setHeuristic(int heuristic) {
+		this.heuristic = heuristic;
+	}
+	
 }
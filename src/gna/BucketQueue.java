@@ -0,0 +1,203 @@
+package gna;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A priority queue of BoardStates which uses the fact that priorities are small non-negative integers.
+ *  The states are kept in buckets indexed by priority and, within a priority, by number of moves.
+ *  Polling returns a state with the smallest priority and, among those, the most moves
+ *  (the same order as the HeuristicComparator), without comparing states.
+ *  Adding and polling take constant time, apart from skipping empty buckets.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class BucketQueue extends AbstractQueue<BoardState> {
+
+	/**
+	 * Variable storing the states, indexed by priority and then by number of moves.
+	 *  Every bucket is a stack of which the top is at the end.
+	 */
+	private BoardState[][][] buckets = new BoardState[64][][];
+
+	/**
+	 * Variable storing the number of states in every bucket, indexed like the buckets.
+	 */
+	private int[][] bucketSizes = new int[64][];
+
+	/**
+	 * Variable storing the number of states per priority.
+	 */
+	private int[] prioritySizes = new int[64];
+
+	/**
+	 * Variable storing for every priority an upper bound of the largest number of moves of its states.
+	 */
+	private int[] maxNbrMoves = new int[64];
+
+	/**
+	 * Variable storing a lower bound of the smallest priority in the queue.
+	 */
+	private int minPriority = Integer.MAX_VALUE;
+
+	/**
+	 * Variable storing the number of states in the queue.
+	 */
+	private int size;
+
+	/**
+	 * Adds the given state to the bucket of its priority and number of moves.
+	 * {@inheritDoc}
+	 * @throws IllegalArgumentException When the priority or the number of moves is negative.
+	 */
+	@Override
+	public boolean offer(BoardState state) {
+		int priority = state.getPriority();
+		int nbrMoves = state.getNbrMoves();
+		if (priority < 0 || nbrMoves < 0) {
+			throw new IllegalArgumentException("A bucket queue only contains states with non-negative priorities");
+		}
+		this.ensureCapacity(priority, nbrMoves);
+		BoardState[] bucket = buckets[priority][nbrMoves];
+		int bucketSize = bucketSizes[priority][nbrMoves];
+		if (bucket == null || bucketSize == bucket.length) {
+			bucket = (bucket == null) ? new BoardState[8] : Arrays.copyOf(bucket, bucket.length * 2);
+			buckets[priority][nbrMoves] = bucket;
+		}
+		bucket[bucketSize] = state;
+		bucketSizes[priority][nbrMoves] = bucketSize + 1;
+		prioritySizes[priority]++;
+		maxNbrMoves[priority] = Math.max(maxNbrMoves[priority], nbrMoves);
+		minPriority = Math.min(minPriority, priority);
+		size++;
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public BoardState poll() {
+		if (size == 0) {
+			return null;
+		}
+		int priority = this.findMinPriority();
+		int nbrMoves = this.findMaxNbrMoves(priority);
+		int bucketSize = --bucketSizes[priority][nbrMoves];
+		BoardState state = buckets[priority][nbrMoves][bucketSize];
+		buckets[priority][nbrMoves][bucketSize] = null;
+		prioritySizes[priority]--;
+		size--;
+		return state;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public BoardState peek() {
+		if (size == 0) {
+			return null;
+		}
+		int priority = this.findMinPriority();
+		int nbrMoves = this.findMaxNbrMoves(priority);
+		return buckets[priority][nbrMoves][bucketSizes[priority][nbrMoves] - 1];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns an iterator over the states, in no particular order.
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<BoardState> iterator() {
+		List<BoardState> states = new ArrayList<>(size);
+		for (int priority = 0; priority < buckets.length; priority++) {
+			if (buckets[priority] == null) {
+				continue;
+			}
+			for (int nbrMoves = 0; nbrMoves < buckets[priority].length; nbrMoves++) {
+				for (int i = 0; i < bucketSizes[priority][nbrMoves]; i++) {
+					states.add(buckets[priority][nbrMoves][i]);
+				}
+			}
+		}
+		final Iterator<BoardState> iterator = states.iterator();
+		return new Iterator<BoardState>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public BoardState next() {
+				if (!iterator.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return iterator.next();
+			}
+		};
+	}
+
+	/**
+	 * Returns the smallest priority with states, moving the lower bound up past empty priorities.
+	 * @return The smallest priority with states.
+	 */
+	private int findMinPriority() {
+		while (prioritySizes[minPriority] == 0) {
+			minPriority++;
+		}
+		return minPriority;
+	}
+
+	/**
+	 * Returns the largest number of moves with states for the given priority, moving the upper bound down past empty buckets.
+	 * @param priority A priority with states.
+	 * @return The largest number of moves with states.
+	 */
+	private int findMaxNbrMoves(int priority) {
+		int nbrMoves = maxNbrMoves[priority];
+		while (bucketSizes[priority][nbrMoves] == 0) {
+			nbrMoves--;
+		}
+		maxNbrMoves[priority] = nbrMoves;
+		return nbrMoves;
+	}
+
+	/**
+	 * Makes sure the bucket of the given priority and number of moves exists.
+	 * @param priority The priority.
+	 * @param nbrMoves The number of moves.
+	 */
+	private void ensureCapacity(int priority, int nbrMoves) {
+		if (priority >= buckets.length) {
+			int length = Math.max(priority + 1, buckets.length * 2);
+			buckets = Arrays.copyOf(buckets, length);
+			bucketSizes = Arrays.copyOf(bucketSizes, length);
+			prioritySizes = Arrays.copyOf(prioritySizes, length);
+			maxNbrMoves = Arrays.copyOf(maxNbrMoves, length);
+		}
+		if (buckets[priority] == null) {
+			int length = Math.max(nbrMoves + 1, 64);
+			buckets[priority] = new BoardState[length][];
+			bucketSizes[priority] = new int[length];
+		} else if (nbrMoves >= buckets[priority].length) {
+			int length = Math.max(nbrMoves + 1, buckets[priority].length * 2);
+			buckets[priority] = Arrays.copyOf(buckets[priority], length);
+			bucketSizes[priority] = Arrays.copyOf(bucketSizes[priority], length);
+		}
+	}
+
+}
@@ -0,0 +1,298 @@
+package gna;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The bulk board reader reads many boards from one file or stream, one after the other.
+ *  Every board has the format of the files in the boards directory: the size followed by the tiles row by row,
+ *  separated by any whitespace. The boards are read lazily, one per call of next().
+ *  Files are memory mapped in windows, streams are read through a channel into a buffer,
+ *  and the integers are parsed directly from the bytes.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class BulkBoardReader implements Iterator<Board>, AutoCloseable {
+
+	/**
+	 * Variable storing the number of bytes of a file which are mapped at once.
+	 */
+	private static final long WINDOW_SIZE = 64L << 20;
+
+	/**
+	 * Variable storing the number of bytes of a stream which are buffered.
+	 */
+	private static final int BUFFER_SIZE = 64 << 10;
+
+	/**
+	 * Variable storing the channel of the file; null when reading a stream.
+	 */
+	private final FileChannel file;
+
+	/**
+	 * Variable storing the channel of the stream; null when reading a file.
+	 */
+	private final ReadableByteChannel stream;
+
+	/**
+	 * Variable storing the bytes which are being parsed.
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * Variable storing the position in the input of the first byte of the buffer.
+	 */
+	private long bufferStart;
+
+	/**
+	 * Variable storing the next board; null when it was not read yet.
+	 */
+	private Board next;
+
+	/**
+	 * Variable storing the number of boards returned by next().
+	 */
+	private long nbrBoardsRead;
+
+	/**
+	 * Initialises a reader of the boards in the given file.
+	 * @param path The path of the file.
+	 * @throws IOException When the file cannot be opened.
+	 */
+	public BulkBoardReader(Path path) throws IOException {
+		this.file = FileChannel.open(path, StandardOpenOption.READ);
+		this.stream = null;
+		this.buffer = ByteBuffer.allocate(0);
+	}
+
+	/**
+	 * Initialises a reader of the boards in the given stream, for example System.in.
+	 * @param in The stream.
+	 */
+	public BulkBoardReader(InputStream in) {
+		this.file = null;
+		this.stream = Channels.newChannel(in);
+		this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		this.buffer.flip();
+	}
+
+	/**
+	 * Returns whether there is another board.
+	 * @return True when another board follows; otherwise false.
+	 * @throws IllegalArgumentException When the next board is not written correctly or its tiles are not valid.
+	 * @throws UncheckedIOException When the input cannot be read.
+	 */
+	@Override
+	public boolean hasNext() {
+		if (next == null) {
+			next = this.readBoard();
+		}
+		return next != null;
+	}
+
+	/**
+	 * Returns the next board.
+	 * @return The next board.
+	 * @throws NoSuchElementException When there are no boards left.
+	 * @throws IllegalArgumentException When the next board is not written correctly or its tiles are not valid.
+	 * @throws UncheckedIOException When the input cannot be read.
+	 */
+	@Override
+	public Board next() {
+		if (!this.hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Board board = next;
+		next = null;
+		nbrBoardsRead++;
+		return board;
+	}
+
+	/**
+	 * Returns a sequential stream of the remaining boards, which reads them lazily.
+	 *  Closing the stream closes this reader.
+	 * @return A stream of the remaining boards.
+	 */
+	public Stream<Board> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(new Runnable() {
+					@Override
+					public void run() {
+						close();
+					}
+				});
+	}
+
+	/**
+	 * Returns the number of boards returned by next().
+	 * @return the number of boards read.
+	 */
+	public long getNbrBoardsRead() {
+		return nbrBoardsRead;
+	}
+
+	/**
+	 * Closes the input.
+	 * @throws UncheckedIOException When the input cannot be closed.
+	 */
+	@Override
+	public void close() {
+		try {
+			if (file != null) {
+				file.close();
+			} else {
+				stream.close();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Reads the next board.
+	 * @return The next board; null when only whitespace is left.
+	 */
+	private Board readBoard() {
+		int first = this.skipWhitespace();
+		if (first < 0) {
+			return null;
+		}
+		long start = this.getPosition();
+		int size = this.readInt(first);
+		if (size <= 0 || size > Board.MAX_SIZE) {
+			throw new IllegalArgumentException(this.describe(start) + "has size " + size + ", which is not between 1 and " + Board.MAX_SIZE);
+		}
+		int[][] tiles = new int[size][size];
+		for (int row = 0; row < size; row++) {
+			for (int column = 0; column < size; column++) {
+				int c = this.skipWhitespace();
+				if (c < 0) {
+					throw new IllegalArgumentException(this.describe(start) + "ends before all its tiles");
+				}
+				tiles[row][column] = this.readInt(c);
+			}
+		}
+		try {
+			return new Board(tiles);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(this.describe(start) + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Parses a non-negative integer.
+	 * @param c The first byte of the integer.
+	 * @return The integer.
+	 * @throws IllegalArgumentException When the bytes are not an integer which fits in an int.
+	 */
+	private int readInt(int c) {
+		long position = this.getPosition();
+		int result = 0;
+		do {
+			if (c < '0' || c > '9') {
+				throw new IllegalArgumentException("Unexpected character '" + (char) c + "' at byte " + position
+						+ " of board " + nbrBoardsRead);
+			}
+			if (result > (Integer.MAX_VALUE - (c - '0')) / 10) {
+				throw new IllegalArgumentException("The number at byte " + position + " of board " + nbrBoardsRead + " is too large");
+			}
+			result = result * 10 + (c - '0');
+			c = this.read();
+			position++;
+		} while (c >= 0 && !isWhitespace(c));
+		return result;
+	}
+
+	/**
+	 * Skips whitespace.
+	 * @return The first byte which is not whitespace; -1 when the input ends.
+	 */
+	private int skipWhitespace() {
+		int c;
+		do {
+			c = this.read();
+		} while (c >= 0 && isWhitespace(c));
+		return c;
+	}
+
+	/**
+	 * Reads the next byte.
+	 * @return The next byte; -1 when the input ends.
+	 * @throws UncheckedIOException When the input cannot be read.
+	 */
+	private int read() {
+		if (!buffer.hasRemaining() && !this.fill()) {
+			return -1;
+		}
+		return buffer.get() & 0xFF;
+	}
+
+	/**
+	 * Moves the buffer to the next bytes of the input.
+	 * @return True when there are more bytes; false when the input ends.
+	 * @throws UncheckedIOException When the input cannot be read.
+	 */
+	private boolean fill() {
+		try {
+			bufferStart += buffer.limit();
+			if (file != null) {
+				long length = Math.min(WINDOW_SIZE, file.size() - bufferStart);
+				if (length <= 0) {
+					return false;
+				}
+				buffer = file.map(FileChannel.MapMode.READ_ONLY, bufferStart, length);
+				return true;
+			}
+			buffer.clear();
+			int nbrBytes;
+			do {
+				nbrBytes = stream.read(buffer);
+			} while (nbrBytes == 0);
+			buffer.flip();
+			return nbrBytes > 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Returns the position in the input of the last byte which was read.
+	 * @return the position of the last byte read.
+	 */
+	private long getPosition() {
+		return bufferStart + buffer.position() - 1;
+	}
+
+	/**
+	 * Returns the start of an error message about the board which is being read.
+	 * @param start The position of the first byte of the board.
+	 * @return The start of the message.
+	 */
+	private String describe(long start) {
+		return "Board " + nbrBoardsRead + " at byte " + start + " ";
+	}
+
+	/**
+	 * Returns whether the given byte is whitespace.
+	 * @param c The byte.
+	 * @return True when the byte is a space, tab, newline, carriage return or form feed; otherwise false.
+	 */
+	private static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+	}
+
+}
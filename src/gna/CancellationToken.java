@@ -0,0 +1,90 @@
+package gna;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * A cancellation token stops a running solve, either when it is cancelled or when its deadline passes.
+ *  The token is given to the SolverStats of the solve; the search checks it together with its progress,
+ *  once every so many expansions, and throws a CancellationException when it has to stop.
+ *  The frontier of the search is left behind with the exception, so its memory can be collected right away.
+ *  A token can be cancelled from any thread.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class CancellationToken {
+
+	/**
+	 * Variable storing whether the token was cancelled.
+	 */
+	private volatile boolean cancelled;
+
+	/**
+	 * Variable storing the value of System.nanoTime() at which the deadline passes.
+	 */
+	private final long deadline;
+
+	/**
+	 * Variable storing whether the token has a deadline.
+	 */
+	private final boolean hasDeadline;
+
+	/**
+	 * Initialises a token without a deadline.
+	 */
+	public CancellationToken() {
+		this.deadline = 0;
+		this.hasDeadline = false;
+	}
+
+	/**
+	 * Initialises a token of which the deadline passes after the given time.
+	 * @param timeoutMillis The time after which the deadline passes, in milliseconds.
+	 * @throws IllegalArgumentException When the time is negative.
+	 */
+	public CancellationToken(long timeoutMillis) {
+		if (timeoutMillis < 0) {
+			throw new IllegalArgumentException("The timeout cannot be negative");
+		}
+		this.deadline = System.nanoTime() + timeoutMillis * 1000000L;
+		this.hasDeadline = true;
+	}
+
+	/**
+	 * Cancels the token, the solve stops at its next check.
+	 * @post | new.isCancelled()
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Returns whether the solve has to stop.
+	 * @return True when the token was cancelled or its deadline passed; otherwise false.
+	 */
+	public boolean isCancelled() {
+		return cancelled || this.isDeadlinePassed();
+	}
+
+	/**
+	 * Returns whether the deadline of the token passed.
+	 * @return True when the token has a deadline which passed; otherwise false.
+	 */
+	public boolean isDeadlinePassed() {
+		return hasDeadline && System.nanoTime() - deadline >= 0;
+	}
+
+	/**
+	 * Stops the solve when it has to.
+	 * @throws CancellationException When the token was cancelled or its deadline passed.
+	 */
+	void check() {
+		if (cancelled) {
+			throw new CancellationException("The solve was cancelled");
+		}
+		if (this.isDeadlinePassed()) {
+			throw new CancellationException("The deadline of the solve passed");
+		}
+	}
+
+}
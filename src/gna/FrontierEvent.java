@@ -0,0 +1,52 @@
+package gna;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event with a snapshot of the frontier of a running search.
+ *  The SolverStats commit one at most every SNAPSHOT_INTERVAL_NANOS while the event is enabled.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+@Name("gna.Frontier")
+@Label("Frontier Snapshot")
+@Category("Sliding Puzzle")
+@Description("The size and bound of the open list of a running search")
+class FrontierEvent extends jdk.jfr.Event {
+
+	/**
+	 * Variable storing the number of states waiting to be expanded.
+	 */
+	@Label("Open Size")
+	long openSize;
+
+	/**
+	 * Variable storing the largest number of states which were waiting to be expanded at the same time.
+	 */
+	@Label("Peak Open Size")
+	long peakOpenSize;
+
+	/**
+	 * Variable storing the priority (moves + heuristic) of the last expanded state, or the bound of the iteration;
+	 *  -1 when the search does not report it.
+	 */
+	@Label("F-Bound")
+	int bound;
+
+	/**
+	 * Variable storing the number of expanded boards so far.
+	 */
+	@Label("Expanded Nodes")
+	long expanded;
+
+	/**
+	 * Variable storing the number of boards expanded per second since the previous snapshot.
+	 */
+	@Label("Expansion Rate")
+	long expansionsPerSecond;
+
+}
@@ -1,22 +1,21 @@
 package gna;
 
-import java.util.Comparator;
-
 /**
  * Comparator used for comparing BoardStates.
  *  The comparator makes use of the Hamming priority function principle.
  * @author Dries Janse
  * @version 1.0
  */
-public class HammingComparator implements Comparator<BoardState> {
+public class HammingComparator extends HeuristicComparator {
 
 	/**
-	 * Compare 2 BoardStates using the Hamming priority function of the current boards with the current boards number of moves.
+	 * Returns the Hamming distance of the given grid.
+	 *  The distance is maintained incrementally by the grid itself.
 	 * {@inheritDoc}
 	 */
 	@Override
-	public int compare(BoardState state1, BoardState state2) {
-		return (state1.getCurrentBoardHamming() + state1.getNbrMoves()) - (state2.getCurrentBoardHamming() + state2.getNbrMoves());
+	public int heuristic(TileGrid grid) {
+		return grid.hamming();
 	}
 
 }
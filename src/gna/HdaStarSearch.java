@@ -0,0 +1,343 @@
+package gna;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hash distributed A* (HDA*) search, which solves a single board with multiple threads.
+ *  Every board is owned by one worker, chosen by the key of the board. Every worker has its own priority queue and
+ *  transposition table, and only expands the boards it owns. The neighbours of an expanded board are sent to their owners
+ *  in batches, through lock-free queues.
+ *  A solution with n moves only ends the search when no worker has a state with a priority below n and no batch is in flight,
+ *  so the solution has the fewest moves. This is detected with a single counter of the active workers plus the batches in flight.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+class HdaStarSearch {
+
+	/**
+	 * Variable storing the number of states sent to the same worker in one batch.
+	 */
+	private static final int BATCH_SIZE = 64;
+
+	/**
+	 * Variable storing the number of states a worker expands before it looks at its incoming batches again.
+	 */
+	private static final int EXPANSIONS_PER_ROUND = 256;
+
+	/**
+	 * Variable storing the board from which the search starts.
+	 */
+	private final Board initial;
+
+	/**
+	 * Variable storing the heuristic used for the priorities.
+	 */
+	private final HeuristicComparator heuristic;
+
+	/**
+	 * Variable storing the workers.
+	 */
+	private final Worker[] workers;
+
+	/**
+	 * Variable storing the number of active workers plus the number of batches in flight, the search ends when it is 0.
+	 */
+	private final AtomicInteger pending = new AtomicInteger();
+
+	/**
+	 * Variable storing the statistics of the search, the counters of the workers are added when they are finished.
+	 */
+	private final SolverStats stats;
+
+	/**
+	 * Variable storing the best solution state found so far.
+	 */
+	private BoardState bestSolution;
+
+	/**
+	 * Variable storing the number of moves of the best solution found so far.
+	 */
+	private volatile int bestNbrMoves = Integer.MAX_VALUE;
+
+	/**
+	 * Variable storing whether the search ended.
+	 */
+	private volatile boolean finished;
+
+	/**
+	 * Variable storing the first failure of a worker; errors are kept as well, otherwise the other workers would
+	 *  wait forever for the work of the failed one.
+	 */
+	private volatile Throwable failure;
+
+	/**
+	 * Initialises a search from the given board, of which the statistics are not kept.
+	 * @effect | this(initial, heuristic, nbrThreads, new SolverStats())
+	 */
+	HdaStarSearch(Board initial, HeuristicComparator heuristic, int nbrThreads) {
+		this(initial, heuristic, nbrThreads, new SolverStats());
+	}
+
+	/**
+	 * Initialises a search from the given board.
+	 * @param initial    The board from which the search starts.
+	 * @param heuristic  The heuristic used for the priorities, it is shared by all the workers.
+	 * @param nbrThreads The number of workers.
+	 * @param stats      The statistics which receive the work of all the workers; they do not report progress,
+	 *                   because the counters of the workers are only added at the end, but their cancellation token
+	 *                   stops every worker.
+	 * @throws IllegalArgumentException When the number of workers is not positive.
+	 */
+	HdaStarSearch(Board initial, HeuristicComparator heuristic, int nbrThreads, SolverStats stats) {
+		if (nbrThreads <= 0) {
+			throw new IllegalArgumentException("The number of threads needs to be positive");
+		}
+		this.initial = initial;
+		this.heuristic = heuristic;
+		this.stats = stats;
+		this.workers = new Worker[nbrThreads];
+		for (int i = 0; i < nbrThreads; i++) {
+			workers[i] = new Worker(i, heuristic);
+		}
+	}
+
+	/**
+	 * Searches a solution with the fewest moves.
+	 * @return The solution state, of which the previous states lead back to the initial board.
+	 */
+	BoardState solve() {
+		BoardState start = new BoardState(initial, null, 0, heuristic.heuristic(initial));
+		pending.set(workers.length + 1);
+		workers[this.getOwner(initial)].inbox.add(new BoardState[] {start});
+		Thread[] threads = new Thread[workers.length];
+		for (int i = 0; i < workers.length; i++) {
+			threads[i] = new Thread(workers[i], "hda-star-" + i);
+			threads[i].setDaemon(true);
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				finished = true;
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while solving", e);
+			}
+		}
+		stats.heuristicEvaluated();
+		for (Worker worker : workers) {
+			stats.add(worker.stats);
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+		if (failure != null) {
+			throw (RuntimeException) failure;
+		}
+		return bestSolution;
+	}
+
+	/**
+	 * Returns the index of the worker which owns the given board.
+	 * @param board The board.
+	 * @return The index of the owner.
+	 */
+	private int getOwner(Board board) {
+		long hash = board.getKey() * 0x9E3779B97F4A7C15L;
+		return (int) ((hash >>> 32) % workers.length);
+	}
+
+	/**
+	 * Stores the given solution state when it has fewer moves than the best one so far.
+	 * @param solution A solution state.
+	 */
+	private synchronized void offerSolution(BoardState solution) {
+		if (solution.getNbrMoves() < bestNbrMoves) {
+			bestSolution = solution;
+			bestNbrMoves = solution.getNbrMoves();
+		}
+	}
+
+	/**
+	 * Marks one active worker or batch in flight as done, ending the search when nothing is pending anymore.
+	 */
+	private void release() {
+		if (pending.decrementAndGet() == 0) {
+			finished = true;
+		}
+	}
+
+	/**
+	 * A worker owns a part of the boards and expands them.
+	 */
+	private class Worker implements Runnable {
+
+		/**
+		 * Variable storing the index of the worker.
+		 */
+		private final int id;
+
+		/**
+		 * Variable storing the batches of states sent to this worker.
+		 */
+		private final ConcurrentLinkedQueue<BoardState[]> inbox = new ConcurrentLinkedQueue<>();
+
+		/**
+		 * Variable storing the states of the boards owned by this worker which still have to be expanded.
+		 */
+		private final PriorityQueue<BoardState> queue;
+
+		/**
+		 * Variable storing the fewest number of moves of every board owned by this worker.
+		 */
+		private final TranspositionTable fewestMoves = new TranspositionTable();
+
+		/**
+		 * Variable storing the states which still have to be sent to every other worker.
+		 */
+		private final List<List<BoardState>> outboxes = new ArrayList<>();
+
+		/**
+		 * Variable storing the statistics of this worker.
+		 */
+		private final SolverStats stats = new SolverStats(HdaStarSearch.this.stats.getCancellationToken());
+
+		/**
+		 * Initialises a worker.
+		 * @param id        The index of the worker.
+		 * @param heuristic The heuristic of which the comparator orders the queue.
+		 */
+		Worker(int id, HeuristicComparator heuristic) {
+			this.id = id;
+			this.queue = new PriorityQueue<>(heuristic);
+		}
+
+		/**
+		 * Expands states and receives batches until the search has ended.
+		 */
+		@Override
+		public void run() {
+			for (int i = 0; i < workers.length; i++) {
+				outboxes.add(new ArrayList<BoardState>(BATCH_SIZE));
+			}
+			try {
+				boolean active = true;
+				while (!finished) {
+					BoardState[] batch;
+					while ((batch = inbox.poll()) != null) {
+						if (!active) {
+							pending.incrementAndGet();
+							active = true;
+						}
+						for (BoardState state : batch) {
+							this.receive(state);
+						}
+						release();
+					}
+					if (this.hasUsefulWork()) {
+						this.expandRound();
+					} else if (active) {
+						active = false;
+						release();
+					} else {
+						LockSupport.parkNanos(20000);
+					}
+				}
+			} catch (RuntimeException | Error e) {
+				if (failure == null) {
+					failure = e;
+				}
+				finished = true;
+			}
+		}
+
+		/**
+		 * Expands up to EXPANSIONS_PER_ROUND states and sends all the neighbours which are owned by other workers.
+		 */
+		private void expandRound() {
+			for (int i = 0; i < EXPANSIONS_PER_ROUND && this.hasUsefulWork(); i++) {
+				BoardState state = queue.poll();
+				Board board = state.getCurrentBoard();
+				if (state.getNbrMoves() > fewestMoves.get(board.getKey())) {
+					stats.duplicatePruned();
+					continue;
+				}
+				stats.expanded();
+				stats.updateBound(state.getPriority());
+				int nbrMoves = state.getNbrMoves() + 1;
+				for (Board neighbor : state.getCurrentNeighbors()) {
+					BoardState next = new BoardState(neighbor, state, nbrMoves, heuristic.heuristic(neighbor, state));
+					stats.generated();
+					stats.heuristicEvaluated();
+					int owner = getOwner(neighbor);
+					if (owner == id) {
+						this.receive(next);
+					} else {
+						List<BoardState> outbox = outboxes.get(owner);
+						outbox.add(next);
+						if (outbox.size() == BATCH_SIZE) {
+							this.send(owner);
+						}
+					}
+				}
+				stats.updatePeakOpenSize(queue.size());
+			}
+			for (int owner = 0; owner < workers.length; owner++) {
+				if (!outboxes.get(owner).isEmpty()) {
+					this.send(owner);
+				}
+			}
+		}
+
+		/**
+		 * Adds the given state to the queue, unless it cannot lead to a better solution.
+		 * @param state A state of which the board is owned by this worker.
+		 */
+		private void receive(BoardState state) {
+			if (state.getPriority() >= bestNbrMoves) {
+				return;
+			}
+			if (!fewestMoves.putIfSmaller(state.getCurrentBoard().getKey(), state.getNbrMoves())) {
+				stats.duplicatePruned();
+				return;
+			}
+			if (state.isCurrentSolved()) {
+				offerSolution(state);
+			} else {
+				queue.add(state);
+			}
+		}
+
+		/**
+		 * Sends the states in the outbox of the given worker as one batch.
+		 * @param owner The index of the worker.
+		 */
+		private void send(int owner) {
+			List<BoardState> outbox = outboxes.get(owner);
+			pending.incrementAndGet();
+			workers[owner].inbox.add(outbox.toArray(new BoardState[outbox.size()]));
+			outbox.clear();
+		}
+
+		/**
+		 * Returns whether the queue contains a state which can lead to a better solution.
+		 *  States which cannot lead to a better solution anymore are removed.
+		 * @return True when the best state of the queue has a priority below the number of moves of the best solution.
+		 */
+		private boolean hasUsefulWork() {
+			BoardState best = queue.peek();
+			if (best != null && best.getPriority() >= bestNbrMoves) {
+				queue.clear();
+				return false;
+			}
+			return best != null;
+		}
+	}
+
+}
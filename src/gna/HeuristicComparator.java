@@ -0,0 +1,62 @@
+package gna;
+
+import java.util.Comparator;
+
+/**
+ * Comparator used for comparing BoardStates on their priority (number of moves plus heuristic value).
+ *  The heuristic value itself is computed once per BoardState by the concrete heuristic,
+ *  every comparison only reads the cached priorities.
+ * @author Dries Janse
+ * @version 1.0
+ */
+public abstract class HeuristicComparator implements Comparator<BoardState> {
+
+	/**
+	 * Returns the heuristic value (an estimate of the number of moves to the solution) of the given grid.
+	 * @param grid The grid of which the heuristic value is computed.
+	 * @return The heuristic value of the given grid.
+	 */
+	public abstract int heuristic(TileGrid grid);
+
+	/**
+	 * Returns the heuristic value of the given grid right after a single tile was moved.
+	 *  By default the value is computed from scratch, heuristics which can derive it
+	 *  from the value before the move override this method.
+	 * @param grid              The grid after the move.
+	 * @param previousHeuristic The heuristic value of the grid before the move.
+	 * @param tile              The value of the moved tile.
+	 * @param fromIndex         The index of the tile before the move (the index of the empty tile after the move).
+	 * @param toIndex           The index of the tile after the move (the index of the empty tile before the move).
+	 * @return The heuristic value of the given grid.
+	 */
+	public int heuristic(TileGrid grid, int previousHeuristic, int tile, int fromIndex, int toIndex) {
+		return this.heuristic(grid);
+	}
+
+	/**
+	 * Returns the heuristic value of the given board, which is a neighbour of the board of the previous state.
+	 * @param board         The board of which the heuristic value is computed.
+	 * @param previousState The state of which the board is a neighbour.
+	 * @return The heuristic value of the given board.
+	 *         | this.heuristic(board, previousState.getHeuristic(), tile, board.getBlankIndex(), previousState.getCurrentBoard().getBlankIndex())
+	 */
+	public int heuristic(Board board, BoardState previousState) {
+		int toIndex = previousState.getCurrentBoard().getBlankIndex();
+		return this.heuristic(board, previousState.getHeuristic(), board.getValue(toIndex), board.getBlankIndex(), toIndex);
+	}
+
+	/**
+	 * Compare 2 BoardStates using their cached priorities.
+	 *  When both priorities are equal, the state with the most moves comes first since it is probably closer to the solution.
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int compare(BoardState state1, BoardState state2) {
+		int result = Integer.compare(state1.getPriority(), state2.getPriority());
+		if (result == 0) {
+			result = Integer.compare(state2.getNbrMoves(), state1.getNbrMoves());
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,141 @@
+package gna;
+
+import java.util.Arrays;
+
+/**
+ * Iterative deepening A* (IDA*) search.
+ *  Every iteration is a depth-first search which cuts off the paths of which the priority exceeds the bound,
+ *  the next bound is the smallest priority which was cut off.
+ *  The search works in place on a single MutableBoard, so only the current path is kept in memory.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+class IdaStarSearch {
+
+	/**
+	 * Variable storing the value returned by a depth-first search which found the solution.
+	 */
+	private static final int FOUND = -1;
+
+	/**
+	 * Variable storing the order in which the neighbours are visited, the same order as Board.neighbors().
+	 */
+	private static final MoveDirection[] DIRECTIONS = {MoveDirection.LEFT, MoveDirection.TOP, MoveDirection.RIGHT, MoveDirection.BOTTOM};
+
+	/**
+	 * Variable storing the board from which the search starts.
+	 */
+	private final Board initial;
+
+	/**
+	 * Variable storing the board which is changed in place.
+	 */
+	private final MutableBoard board;
+
+	/**
+	 * Variable storing the heuristic used for the priorities.
+	 */
+	private final HeuristicComparator heuristic;
+
+	/**
+	 * Variable storing the index of the empty tile after every move of the current path.
+	 */
+	private int[] path;
+
+	/**
+	 * Variable storing the number of moves of the solution, once found.
+	 */
+	private int depth;
+
+	/**
+	 * Variable storing the statistics of the search.
+	 */
+	private final SolverStats stats;
+
+	/**
+	 * Initialises a search from the given board.
+	 * @param initial   The board from which the search starts.
+	 * @param heuristic The heuristic used for the priorities.
+	 * @param stats     The statistics which count the work of the search.
+	 */
+	IdaStarSearch(Board initial, HeuristicComparator heuristic, SolverStats stats) {
+		this.initial = initial;
+		this.stats = stats;
+		this.board = new MutableBoard(initial);
+		this.heuristic = heuristic;
+		this.path = new int[64];
+	}
+
+	/**
+	 * Searches a solution with the fewest moves.
+	 * @return The solution state, of which the previous states lead back to the initial board.
+	 */
+	BoardState solve() {
+		int initialHeuristic = heuristic.heuristic(board);
+		stats.heuristicEvaluated();
+		int bound = initialHeuristic;
+		while (true) {
+			stats.updateBound(bound);
+			int result = this.search(0, initialHeuristic, bound, -1);
+			if (result == FOUND) {
+				break;
+			}
+			bound = result;
+		}
+		BoardState state = new BoardState(initial, null, 0, initialHeuristic);
+		for (int i = 0; i < depth; i++) {
+			Board next = state.getCurrentBoard().moveBlank(path[i]);
+			state = new BoardState(next, state, i + 1, heuristic.heuristic(next, state));
+		}
+		return state;
+	}
+
+	/**
+	 * Depth-first search from the current board.
+	 * @param nbrMoves      The number of moves made to reach the current board.
+	 * @param currentValue  The heuristic value of the current board.
+	 * @param bound         The largest priority which is expanded in this iteration.
+	 * @param previousBlank The index of the empty tile before the last move (-1 at the root), it is never moved back.
+	 * @return FOUND when the solution was found; otherwise the smallest priority which exceeded the bound.
+	 */
+	private int search(int nbrMoves, int currentValue, int bound, int previousBlank) {
+		int priority = nbrMoves + currentValue;
+		if (priority > bound) {
+			return priority;
+		}
+		if (board.hamming() == 0) {
+			depth = nbrMoves;
+			return FOUND;
+		}
+		stats.expanded();
+		stats.updatePeakOpenSize(nbrMoves + 1);
+		int min = Integer.MAX_VALUE;
+		int blank = board.getBlankIndex();
+		for (MoveDirection direction : DIRECTIONS) {
+			int target = board.getTargetIndex(direction);
+			if (target < 0) {
+				continue;
+			}
+			if (target == previousBlank) {
+				stats.duplicatePruned();
+				continue;
+			}
+			int tile = board.moveBlank(target);
+			stats.generated();
+			stats.heuristicEvaluated();
+			if (nbrMoves == path.length) {
+				path = Arrays.copyOf(path, path.length * 2);
+			}
+			path[nbrMoves] = target;
+			int result = this.search(nbrMoves + 1, heuristic.heuristic(board, currentValue, tile, target, blank), bound, blank);
+			if (result == FOUND) {
+				return FOUND;
+			}
+			board.moveBlank(blank);
+			min = Math.min(min, result);
+		}
+		return min;
+	}
+
+}
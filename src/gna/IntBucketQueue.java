@@ -0,0 +1,141 @@
+package gna;
+
+import java.util.Arrays;
+
+/**
+ * A bucket queue of node ids, the primitive counterpart of the BucketQueue.
+ *  Every id is stored in the bucket of its priority and number of moves,
+ *  so it is polled in the same order: the smallest priority first and among equal priorities the most moves first.
+ *  Clearing the queue keeps its buckets, so it can be reused without allocating them again.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+class IntBucketQueue {
+
+	/**
+	 * Variable storing the ids per priority and per number of moves.
+	 */
+	private int[][][] buckets = new int[64][][];
+
+	/**
+	 * Variable storing the number of ids in every bucket.
+	 */
+	private int[][] bucketSizes = new int[64][];
+
+	/**
+	 * Variable storing the number of ids per priority.
+	 */
+	private int[] prioritySizes = new int[64];
+
+	/**
+	 * Variable storing an upper bound on the largest number of moves with ids per priority.
+	 */
+	private int[] maxNbrMoves = new int[64];
+
+	/**
+	 * Variable storing a lower bound on the smallest priority with ids.
+	 */
+	private int minPriority = Integer.MAX_VALUE;
+
+	/**
+	 * Variable storing the number of ids in the queue.
+	 */
+	private int size;
+
+	/**
+	 * Adds the given id.
+	 * @param id       The id of the node.
+	 * @param priority The priority of the node, not negative.
+	 * @param nbrMoves The number of moves of the node, not negative.
+	 * @throws IllegalArgumentException When the priority or number of moves is negative.
+	 */
+	void offer(int id, int priority, int nbrMoves) {
+		if (priority < 0 || nbrMoves < 0) {
+			throw new IllegalArgumentException("A bucket queue only contains nodes with non-negative priorities");
+		}
+		this.ensureCapacity(priority, nbrMoves);
+		int[] bucket = buckets[priority][nbrMoves];
+		int bucketSize = bucketSizes[priority][nbrMoves];
+		if (bucket == null || bucketSize == bucket.length) {
+			bucket = (bucket == null) ? new int[64] : Arrays.copyOf(bucket, bucket.length * 2);
+			buckets[priority][nbrMoves] = bucket;
+		}
+		bucket[bucketSize] = id;
+		bucketSizes[priority][nbrMoves] = bucketSize + 1;
+		prioritySizes[priority]++;
+		maxNbrMoves[priority] = Math.max(maxNbrMoves[priority], nbrMoves);
+		minPriority = Math.min(minPriority, priority);
+		size++;
+	}
+
+	/**
+	 * Removes the id with the smallest priority, and among those the most moves.
+	 * @return The id; -1 when the queue is empty.
+	 */
+	int poll() {
+		if (size == 0) {
+			return -1;
+		}
+		while (prioritySizes[minPriority] == 0) {
+			minPriority++;
+		}
+		int nbrMoves = maxNbrMoves[minPriority];
+		while (bucketSizes[minPriority][nbrMoves] == 0) {
+			nbrMoves--;
+		}
+		maxNbrMoves[minPriority] = nbrMoves;
+		prioritySizes[minPriority]--;
+		size--;
+		return buckets[minPriority][nbrMoves][--bucketSizes[minPriority][nbrMoves]];
+	}
+
+	/**
+	 * Returns the number of ids in the queue.
+	 * @return the number of ids in the queue.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all the ids, the buckets are kept.
+	 * @post | new.size() == 0
+	 */
+	void clear() {
+		for (int priority = 0; priority < bucketSizes.length; priority++) {
+			if (bucketSizes[priority] != null && prioritySizes[priority] > 0) {
+				Arrays.fill(bucketSizes[priority], 0);
+			}
+		}
+		Arrays.fill(prioritySizes, 0);
+		Arrays.fill(maxNbrMoves, 0);
+		minPriority = Integer.MAX_VALUE;
+		size = 0;
+	}
+
+	/**
+	 * Makes sure the bucket of the given priority and number of moves exists.
+	 * @param priority The priority.
+	 * @param nbrMoves The number of moves.
+	 */
+	private void ensureCapacity(int priority, int nbrMoves) {
+		if (priority >= buckets.length) {
+			int length = Math.max(priority + 1, buckets.length * 2);
+			buckets = Arrays.copyOf(buckets, length);
+			bucketSizes = Arrays.copyOf(bucketSizes, length);
+			prioritySizes = Arrays.copyOf(prioritySizes, length);
+			maxNbrMoves = Arrays.copyOf(maxNbrMoves, length);
+		}
+		if (buckets[priority] == null) {
+			int length = Math.max(nbrMoves + 1, 64);
+			buckets[priority] = new int[length][];
+			bucketSizes[priority] = new int[length];
+		} else if (nbrMoves >= buckets[priority].length) {
+			int length = Math.max(nbrMoves + 1, buckets[priority].length * 2);
+			buckets[priority] = Arrays.copyOf(buckets[priority], length);
+			bucketSizes[priority] = Arrays.copyOf(bucketSizes[priority], length);
+		}
+	}
+
+}
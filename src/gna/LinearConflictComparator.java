@@ -0,0 +1,144 @@
+package gna;
+
+/**
+ * Comparator used for comparing BoardStates.
+ *  The comparator makes use of the Manhattan priority function extended with linear conflicts.
+ *  Two tiles are in linear conflict when they are in their goal row (or column) but in the wrong order,
+ *  one of them has to leave the line and come back, which costs 2 moves on top of the Manhattan distance.
+ *  Per line the number of tiles which have to leave is the number of tiles in their goal line
+ *  minus the longest sequence of them which already is in the right order.
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class LinearConflictComparator extends HeuristicComparator {
+
+	/**
+	 * Returns the sum of the Manhattan distances plus 2 moves for every tile which has to leave its line.
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int heuristic(TileGrid grid) {
+		int size = grid.getSize();
+		int[] line = new int[size];
+		int conflicts = 0;
+		for (int i = 0; i < size; i++) {
+			conflicts += this.rowConflicts(grid, i, -1, -1, 0, line);
+			conflicts += this.columnConflicts(grid, i, -1, -1, 0, line);
+		}
+		return grid.manhattan() + 2 * conflicts;
+	}
+
+	/**
+	 * Returns the heuristic value after the move, only the two lines which the tile left and entered are recomputed.
+	 *  A vertical move only changes the contents of two rows, the order of the tiles in the column stays the same.
+	 *  A horizontal move only changes the contents of two columns.
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int heuristic(TileGrid grid, int previousHeuristic, int tile, int fromIndex, int toIndex) {
+		int size = grid.getSize();
+		int[] line = new int[size];
+		int result = previousHeuristic - Board.getDistance(size, fromIndex, tile) + Board.getDistance(size, toIndex, tile);
+		if (fromIndex / size != toIndex / size) {
+			for (int row : new int[] {fromIndex / size, toIndex / size}) {
+				result -= 2 * this.rowConflicts(grid, row, fromIndex, toIndex, tile, line);
+				result += 2 * this.rowConflicts(grid, row, -1, -1, 0, line);
+			}
+		} else {
+			for (int column : new int[] {fromIndex % size, toIndex % size}) {
+				result -= 2 * this.columnConflicts(grid, column, fromIndex, toIndex, tile, line);
+				result += 2 * this.columnConflicts(grid, column, -1, -1, 0, line);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of tiles which have to leave the given row.
+	 *  The row can be evaluated as it was before a move, by giving the index the moved tile came from.
+	 * @param grid      The grid of which the row is evaluated.
+	 * @param row       The row index.
+	 * @param fromIndex The index on which the given tile is placed instead, -1 to use the grid as is.
+	 * @param toIndex   The index which is seen as empty instead, -1 to use the grid as is.
+	 * @param tile      The tile placed on the from index.
+	 * @param line      An array of at least size elements, used as scratch space.
+	 * @return The number of tiles which have to leave the row.
+	 */
+	private int rowConflicts(TileGrid grid, int row, int fromIndex, int toIndex, int tile, int[] line) {
+		int size = grid.getSize();
+		int count = 0;
+		for (int column = 0; column < size; column++) {
+			int index = row * size + column;
+			int value = this.getValue(grid, index, fromIndex, toIndex, tile);
+			if (value != 0 && (value - 1) / size == row) {
+				line[count++] = (value - 1) % size;
+			}
+		}
+		return count - this.longestIncreasing(line, count);
+	}
+
+	/**
+	 * Returns the number of tiles which have to leave the given column.
+	 *  The column can be evaluated as it was before a move, by giving the index the moved tile came from.
+	 * @param grid      The grid of which the column is evaluated.
+	 * @param column    The column index.
+	 * @param fromIndex The index on which the given tile is placed instead, -1 to use the grid as is.
+	 * @param toIndex   The index which is seen as empty instead, -1 to use the grid as is.
+	 * @param tile      The tile placed on the from index.
+	 * @param line      An array of at least size elements, used as scratch space.
+	 * @return The number of tiles which have to leave the column.
+	 */
+	private int columnConflicts(TileGrid grid, int column, int fromIndex, int toIndex, int tile, int[] line) {
+		int size = grid.getSize();
+		int count = 0;
+		for (int row = 0; row < size; row++) {
+			int index = row * size + column;
+			int value = this.getValue(grid, index, fromIndex, toIndex, tile);
+			if (value != 0 && (value - 1) % size == column) {
+				line[count++] = (value - 1) / size;
+			}
+		}
+		return count - this.longestIncreasing(line, count);
+	}
+
+	/**
+	 * Returns the value on the given index, with the given tile put back on the from index.
+	 * @param grid      The grid of which the value is returned.
+	 * @param index     The index of the requested value.
+	 * @param fromIndex The index on which the given tile is placed instead.
+	 * @param toIndex   The index which is seen as empty instead.
+	 * @param tile      The tile placed on the from index.
+	 * @return The value on the given index.
+	 */
+	private int getValue(TileGrid grid, int index, int fromIndex, int toIndex, int tile) {
+		if (index == fromIndex) {
+			return tile;
+		}
+		if (index == toIndex) {
+			return 0;
+		}
+		return grid.getValue(index);
+	}
+
+	/**
+	 * Returns the length of the longest strictly increasing subsequence of the first elements of the given array.
+	 * @param values The values of which the subsequence is taken.
+	 * @param count  The number of values used.
+	 * @return The length of the longest strictly increasing subsequence.
+	 */
+	private int longestIncreasing(int[] values, int count) {
+		int[] lengths = new int[count];
+		int longest = 0;
+		for (int i = 0; i < count; i++) {
+			lengths[i] = 1;
+			for (int j = 0; j < i; j++) {
+				if (values[j] < values[i] && lengths[j] + 1 > lengths[i]) {
+					lengths[i] = lengths[j] + 1;
+				}
+			}
+			longest = Math.max(longest, lengths[i]);
+		}
+		return longest;
+	}
+
+}
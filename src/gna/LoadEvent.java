@@ -0,0 +1,40 @@
+package gna;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event which spans the loading of a pattern database or a binary board file.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+@Name("gna.Load")
+@Label("Load")
+@Category("Sliding Puzzle")
+@Description("A pattern database or board file which is loaded")
+class LoadEvent extends jdk.jfr.Event {
+
+	/**
+	 * Variable storing what is loaded.
+	 */
+	@Label("Kind")
+	String kind;
+
+	/**
+	 * Variable storing the path of the file.
+	 */
+	@Label("Path")
+	String path;
+
+	/**
+	 * Variable storing the size of the file.
+	 */
+	@Label("Size")
+	@DataAmount
+	long bytes;
+
+}
@@ -1,87 +1,409 @@
 package gna;
 
-import libpract.StdIn;
-
-import java.io.File;
-import java.io.FileOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import libpract.PriorityFunc;
 
+/**
+ * Without arguments, every board on the standard input is solved and its solution is printed.
+ *  With arguments, the boards of the given files, directories and glob patterns are solved in batch
+ *  and one line of results is printed per board, as soon as it is finished:
+ *
+ *  java gna.Main [--engine A_STAR|BUCKET_A_STAR|IDA_STAR|BIDIRECTIONAL|HDA_STAR|SMA_STAR|ARENA_A_STAR
+ *                          |PLACEMENT|SHORTENED_PLACEMENT]
+ *                [--heuristic HAMMING|MANHATTAN|LINEAR_CONFLICT|WALKING_DISTANCE|PDB=file]
+ *                [--threads n] [--timeout ms] [--format csv|json] [--output file] path...
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
 class Main
 {
+	/**
+	 * Variable storing the usage of the batch mode.
+	 */
+	private static final String USAGE = "Usage: java gna.Main [--engine A_STAR|BUCKET_A_STAR|IDA_STAR|BIDIRECTIONAL|HDA_STAR|SMA_STAR|ARENA_A_STAR\n"
+			+ "                              |PLACEMENT|SHORTENED_PLACEMENT]\n"
+			+ "                     [--heuristic HAMMING|MANHATTAN|LINEAR_CONFLICT|WALKING_DISTANCE|PDB=file]\n"
+			+ "                     [--threads n] [--timeout ms] [--format csv|json] [--output file] path...\n"
+			+ "A path is a board file, a directory of board files or a glob pattern such as boards/puzzle3*.txt.";
+
 	public static void main( String[] args )
 	{
-		
-		/*PriorityFunc[] prio = {PriorityFunc.HAMMING};
-		String[] paths = {"boards/puzzle04.txt","boards/puzzle20.txt","boards/puzzle22.txt","boards/puzzle24.txt","boards/puzzle26.txt","boards/puzzle28.txt",
-				"boards/puzzle30.txt","boards/puzzle32.txt","boards/puzzle34.txt","boards/puzzle36.txt","boards/puzzle38.txt","boards/puzzle40.txt","boards/puzzle42.txt" };
-		
-		
-		String[] paths = {"boards/puzzle28.txt",
-				"boards/puzzle30.txt" };
-		
-		
-		generateDataCSV(paths, prio);*/
-		
-		
-		/*Board b = BoardReader.getBoardWithData("boards/puzzle20.txt");
-		Solver s = new Solver(b, PriorityFunc.MANHATTAN);
-		for (Board bor : s.solution()) {
-			System.out.println(bor);
-		}*/
-		
-		int N = StdIn.readInt();
-		int[][] tiles = new int[N][N];
-		
-		for (int i = 0; i < N; i++)
-			for (int j = 0; j < N; j++)
-				tiles[i][j] = StdIn.readInt();
-		
-		Board initial = new Board(tiles);
-		if (!initial.isSolvable())
-		{
-			System.out.println("No solution possible");
-		}
-		else
-		{
-			Solver solver = new Solver(initial, PriorityFunc.HAMMING);
-	
-			for (Board board : solver.solution())
-				System.out.println(board);
-
-			System.out.println("Minimum number of moves = " + Integer.toString(solver.solution().size() - 1));
+		if (args.length > 0) {
+			try {
+				System.exit(runBatch(args));
+			} catch (IllegalArgumentException e) {
+				System.err.println(e.getMessage());
+				System.err.println(USAGE);
+				System.exit(2);
+			}
+		}
+
+		// Every board on the standard input is solved, one after the other.
+		try (BulkBoardReader reader = new BulkBoardReader(System.in)) {
+			while (reader.hasNext()) {
+				Board initial = reader.next();
+				if (!initial.isSolvable())
+				{
+					System.out.println("No solution possible");
+				}
+				else
+				{
+					Solver solver = new Solver(initial, PriorityFunc.HAMMING);
+
+					for (Board board : solver.getMoves())
+						System.out.println(board);
+
+					System.out.println("Minimum number of moves = " + Integer.toString(solver.getMinimalNumberOfMoves()));
+				}
+			}
 		}
 	}
-	
-	
+
 	/**
-	 * Generates a CSV file with containing all the information of the puzzle efficiency and the used priorityFunction.
-	 * @param filePaths     The list of path to the puzzle files.
-	 * @param priorityFuncs The priority functions used.
-	 * @post A CSV file is generated with the given information.
+	 * Solves the boards given by the command line arguments in batch and prints their results.
+	 *  A summary with the number of solved boards, the total time and the peak heap usage is printed on the standard error.
+	 * @param args The command line arguments.
+	 * @return The exit status: 0 when all the boards were solved; otherwise 1.
+	 * @throws IllegalArgumentException When the arguments are not valid.
 	 */
-	private static void generateDataCSV(String[] filePaths, PriorityFunc[] priorityFuncs) {
-		String filename=System.getProperty("user.dir") + File.separator + "dataFile.csv";
-		try (FileOutputStream fos = new FileOutputStream(filename)) {
-			for(PriorityFunc prio: priorityFuncs) {
-				String priorityFuncLine = prio.name() + "\n";
-				priorityFuncLine += "file,time,minimalmoves"+ "\n";
-				fos.write(priorityFuncLine.getBytes());
-				for (String p: filePaths) {
-					Board b = BoardReader.getBoardWithData(p);
-					Stopwatch stopwatch = new Stopwatch();
-					Solver s = new Solver(b, prio);
-					long time = stopwatch.elapsedTime();
-					String dataLine = p +"," +time + "," + s.getMinimalNumberOfMoves() +  "\n";
-					fos.write(dataLine.getBytes());
+	private static int runBatch(String[] args) {
+		SearchMode mode = SearchMode.A_STAR;
+		String heuristicName = "MANHATTAN";
+		int nbrThreads = Runtime.getRuntime().availableProcessors();
+		long timeoutMillis = 0;
+		String format = "csv";
+		String output = null;
+		List<String> paths = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (!arg.startsWith("--")) {
+				paths.addAll(expandPath(arg));
+				continue;
+			}
+			if (i + 1 == args.length) {
+				throw new IllegalArgumentException("Option " + arg + " needs a value");
+			}
+			String value = args[++i];
+			switch (arg) {
+			case "--engine":
+				mode = parseEnum(SearchMode.class, value, arg);
+				break;
+			case "--heuristic":
+				heuristicName = value;
+				break;
+			case "--threads":
+				nbrThreads = parsePositive(value, arg);
+				break;
+			case "--timeout":
+				timeoutMillis = parsePositive(value, arg);
+				break;
+			case "--format":
+				if (!value.equals("csv") && !value.equals("json")) {
+					throw new IllegalArgumentException("Unknown format " + value);
 				}
+				format = value;
+				break;
+			case "--output":
+				output = value;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option " + arg);
+			}
+		}
+		if (paths.isEmpty()) {
+			throw new IllegalArgumentException("No board files found");
+		}
+		HeuristicComparator heuristic = getHeuristic(heuristicName);
+
+		long start = System.nanoTime();
+		final int[] nbrSolved = new int[1];
+		try (PrintWriter out = openOutput(output); BatchSolver batch = new BatchSolver(nbrThreads, 2 * nbrThreads, timeoutMillis)) {
+			final boolean json = format.equals("json");
+			if (!json) {
+				out.println("source,moves,nanos,expanded,generated,peakOpen,allocatedBytes,error");
 			}
-		}catch (Exception e) {
-			throw new IllegalArgumentException("Couldn't save the content");
+			batch.solveFiles(paths, heuristic, mode, new Consumer<BatchResult>() {
+				@Override
+				public void accept(BatchResult result) {
+					if (result.isSolved()) {
+						nbrSolved[0]++;
+					}
+					out.println(json ? toJson(result) : toCsv(result));
+					out.flush();
+				}
+			});
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return 1;
+		}
+		System.err.println("Solved " + nbrSolved[0] + " of " + paths.size() + " boards in " + (System.nanoTime() - start) / 1000000
+				+ " ms, peak heap " + getPeakHeapBytes() / (1 << 20) + " MB");
+		return (nbrSolved[0] == paths.size()) ? 0 : 1;
+	}
+
+	/**
+	 * Returns the board files of the given path.
+	 * @param path A board file, a directory of which all the regular files are board files,
+	 *             or a glob pattern which matches board files.
+	 * @return The paths of the board files, sorted when the path is a directory or a pattern.
+	 * @throws IllegalArgumentException When the path does not exist or the pattern matches nothing.
+	 * @throws UncheckedIOException When a directory cannot be read.
+	 */
+	static List<String> expandPath(String path) {
+		List<String> result = new ArrayList<>();
+		try {
+			int wildcard = indexOfWildcard(path);
+			if (wildcard < 0) {
+				Path file = Paths.get(path);
+				if (!Files.isDirectory(file)) {
+					if (!Files.exists(file)) {
+						throw new IllegalArgumentException("The path " + path + " does not exist");
+					}
+					return Collections.singletonList(path);
+				}
+				try (DirectoryStream<Path> files = Files.newDirectoryStream(file)) {
+					for (Path entry : files) {
+						if (Files.isRegularFile(entry)) {
+							result.add(entry.toString());
+						}
+					}
+				}
+			} else {
+				// the pattern is matched below the last directory before the first wildcard
+				int separator = path.lastIndexOf('/', wildcard);
+				Path root = Paths.get(separator < 0 ? "." : path.substring(0, separator + 1));
+				final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + path.substring(separator + 1));
+				try (Stream<Path> files = Files.walk(root)) {
+					for (Path entry : (Iterable<Path>) files::iterator) {
+						if (Files.isRegularFile(entry) && matcher.matches(root.relativize(entry))) {
+							result.add(separator < 0 ? root.relativize(entry).toString() : entry.toString());
+						}
+					}
+				}
+				if (result.isEmpty()) {
+					throw new IllegalArgumentException("The pattern " + path + " matches no files");
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 * Returns the position of the first glob wildcard in the given path.
+	 * @param path The path.
+	 * @return The position of the first '*', '?', '[' or '{'; -1 when there is none.
+	 */
+	private static int indexOfWildcard(String path) {
+		for (int i = 0; i < path.length(); i++) {
+			char c = path.charAt(i);
+			if (c == '*' || c == '?' || c == '[' || c == '{') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the heuristic with the given name.
+	 * @param name HAMMING, MANHATTAN, LINEAR_CONFLICT, WALKING_DISTANCE or PDB= followed by the path of a pattern database.
+	 * @return The heuristic.
+	 * @throws IllegalArgumentException When the name is unknown or the pattern database cannot be loaded.
+	 */
+	static HeuristicComparator getHeuristic(String name) {
+		if (name.startsWith("PDB=")) {
+			try {
+				return PatternDatabaseComparator.load(name.substring(4));
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Cannot load the pattern database " + name.substring(4) + ": " + e.getMessage());
+			}
+		}
+		switch (name) {
+		case "HAMMING":
+			return new HammingComparator();
+		case "MANHATTAN":
+			return new ManhattanComparator();
+		case "LINEAR_CONFLICT":
+			return new LinearConflictComparator();
+		case "WALKING_DISTANCE":
+			return new WalkingDistanceComparator();
+		default:
+			throw new IllegalArgumentException("Unknown heuristic " + name);
+		}
+	}
+
+	/**
+	 * Returns the constant of the given enum with the given name.
+	 * @param type   The enum.
+	 * @param value  The name of the constant.
+	 * @param option The option of which the value is parsed.
+	 * @return The constant.
+	 * @throws IllegalArgumentException When the enum has no constant with the given name.
+	 */
+	private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String option) {
+		try {
+			return Enum.valueOf(type, value);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown value " + value + " of " + option);
+		}
+	}
+
+	/**
+	 * Returns the positive integer written in the given value.
+	 * @param value  The value.
+	 * @param option The option of which the value is parsed.
+	 * @return The integer.
+	 * @throws IllegalArgumentException When the value is not a positive integer.
+	 */
+	private static int parsePositive(String value, String option) {
+		try {
+			int result = Integer.parseInt(value);
+			if (result > 0) {
+				return result;
+			}
+		} catch (NumberFormatException e) {
+			// reported below
+		}
+		throw new IllegalArgumentException("The value of " + option + " needs to be a positive integer");
+	}
+
+	/**
+	 * Opens the writer of the results.
+	 * @param output The path of the output file; null for the standard output.
+	 * @return The out.
+	 * @throws IllegalArgumentException When the file cannot be created.
+	 */
+	private static PrintWriter openOutput(String output) {
+		if (output == null) {
+			return new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+				@Override
+				public void close() {
+					// the standard output stays open
+					this.flush();
+				}
+			};
+		}
+		try {
+			return new PrintWriter(Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Cannot create " + output + ": " + e.getMessage());
 		}
 	}
-	
-	
-}
 
+	/**
+	 * Returns the result as a CSV line with the columns source, moves, nanos, expanded, generated, peakOpen, allocatedBytes and error.
+	 *  The columns which are not known are left empty.
+	 * @param result The result.
+	 * @return The CSV line.
+	 */
+	static String toCsv(BatchResult result) {
+		SolverStats stats = result.getStats();
+		String error = (result.getError() == null) ? "" : describe(result.getError());
+		return escapeCsv(result.getSource()) + "," + result.getNbrMoves() + "," + result.getNanos() + "," + result.getNbrExpandedNodes()
+				+ "," + (stats == null ? "" : stats.getNbrGeneratedNodes()) + "," + (stats == null ? "" : stats.getPeakOpenSize())
+				+ "," + (result.getAllocatedBytes() < 0 ? "" : result.getAllocatedBytes()) + "," + escapeCsv(error);
+	}
 
+	/**
+	 * Returns the result as a JSON object on one line.
+	 * @param result The result.
+	 * @return The JSON line.
+	 */
+	static String toJson(BatchResult result) {
+		SolverStats stats = result.getStats();
+		StringBuilder builder = new StringBuilder("{\"source\":").append(escapeJson(result.getSource()));
+		builder.append(",\"moves\":").append(result.getNbrMoves());
+		builder.append(",\"nanos\":").append(result.getNanos());
+		builder.append(",\"expanded\":").append(result.getNbrExpandedNodes());
+		if (stats != null) {
+			builder.append(",\"generated\":").append(stats.getNbrGeneratedNodes());
+			builder.append(",\"peakOpen\":").append(stats.getPeakOpenSize());
+		}
+		if (result.getAllocatedBytes() >= 0) {
+			builder.append(",\"allocatedBytes\":").append(result.getAllocatedBytes());
+		}
+		if (result.getError() != null) {
+			builder.append(",\"error\":").append(escapeJson(describe(result.getError())));
+		}
+		return builder.append('}').toString();
+	}
+
+	/**
+	 * Returns the message of the given error, or its type when it has no message (like a StackOverflowError).
+	 * @param error The error.
+	 * @return The description of the error.
+	 */
+	private static String describe(Throwable error) {
+		return (error.getMessage() == null) ? error.getClass().getSimpleName() : error.getMessage();
+	}
+
+	/**
+	 * Quotes the given value when it contains a comma, a quote or a line break.
+	 * @param value The value.
+	 * @return The CSV field.
+	 */
+	private static String escapeCsv(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	/**
+	 * Returns the given value as a JSON string.
+	 * @param value The value.
+	 * @return The quoted and escaped value.
+	 */
+	private static String escapeJson(String value) {
+		StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				builder.append('\\').append(c);
+			} else if (c < 0x20) {
+				builder.append(String.format("\\u%04x", (int) c));
+			} else {
+				builder.append(c);
+			}
+		}
+		return builder.append('"').toString();
+	}
+
+	/**
+	 * Returns the peak usage of the heap since the start of the virtual machine.
+	 * @return The sum of the peak usages of the heap memory pools in bytes.
+	 */
+	private static long getPeakHeapBytes() {
+		long result = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				result += pool.getPeakUsage().getUsed();
+			}
+		}
+		return result;
+	}
+
+}
@@ -2,6 +2,8 @@ package gna;
 
 /**
  * The MoveDirection enumeration stores all the valid moves which can be done on the board.
+ *  Mirroring a move over the main diagonal flips the lowest bit of its ordinal (LEFT with TOP, BOTTOM with RIGHT),
+ *  the MoveSequence relies on this order.
  * 
  * @author Dries Janse
  * @version 1.0
@@ -0,0 +1,270 @@
+package gna;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A move sequence stores a solution as the initial board followed by the moves of the empty tile.
+ *  Every move takes 2 bits (the ordinal of its MoveDirection), 32 moves are packed in one long.
+ *  The boards of the solution are not stored, the iterator replays them one by one from the initial board.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class MoveSequence implements Iterable<Board> {
+
+	/**
+	 * Variable storing the number of bits of one move.
+	 */
+	private static final int BITS_PER_MOVE = 2;
+
+	/**
+	 * Variable storing the number of moves in one long.
+	 */
+	private static final int MOVES_PER_LONG = Long.SIZE / BITS_PER_MOVE;
+
+	/**
+	 * Variable storing the directions by their ordinal.
+	 */
+	private static final MoveDirection[] DIRECTIONS = MoveDirection.values();
+
+	/**
+	 * Variable storing the board before the first move.
+	 */
+	private final Board initial;
+
+	/**
+	 * Variable storing the packed moves, move i is stored in bits 2*(i%32) up to 2*(i%32)+1 of long i/32.
+	 */
+	private final long[] packedMoves;
+
+	/**
+	 * Variable storing the number of moves.
+	 */
+	private final int size;
+
+	/**
+	 * Initialises a move sequence with the given moves.
+	 * @param initial The board before the first move.
+	 * @param moves   The directions in which the empty tile moves, in order.
+	 * @throws IllegalArgumentException When the initial board or a move is null, or when a move leaves the board.
+	 */
+	public MoveSequence(Board initial, MoveDirection... moves) {
+		if (initial == null) {
+			throw new IllegalArgumentException("The initial board cannot be null");
+		}
+		this.initial = initial;
+		this.size = moves.length;
+		this.packedMoves = new long[(moves.length + MOVES_PER_LONG - 1) / MOVES_PER_LONG];
+		int blankIndex = initial.getBlankIndex();
+		for (int i = 0; i < moves.length; i++) {
+			if (moves[i] == null) {
+				throw new IllegalArgumentException("A move cannot be null");
+			}
+			blankIndex = getTargetIndex(initial.getSize(), blankIndex, moves[i]);
+			this.setMove(i, moves[i]);
+		}
+	}
+
+	/**
+	 * Initialises a move sequence with the moves which lead to the board of the given state.
+	 * @param solution The last state, of which the previous states lead back to the initial board;
+	 *                 every state has exactly one move more than its previous state.
+	 */
+	MoveSequence(BoardState solution) {
+		this.size = solution.getNbrMoves();
+		this.packedMoves = new long[(size + MOVES_PER_LONG - 1) / MOVES_PER_LONG];
+		BoardState state = solution;
+		for (int i = size - 1; i >= 0; i--) {
+			BoardState previous = state.getPreviousState();
+			this.setMove(i, getDirection(previous.getCurrentBoard().getBlankIndex(), state.getCurrentBoard().getBlankIndex()));
+			state = previous;
+		}
+		this.initial = state.getCurrentBoard();
+	}
+
+	/**
+	 * Initialises a move sequence with the given packed moves.
+	 * @param initial     The board before the first move.
+	 * @param packedMoves The packed moves, which are not copied.
+	 * @param size        The number of moves.
+	 */
+	MoveSequence(Board initial, long[] packedMoves, int size) {
+		this.initial = initial;
+		this.packedMoves = packedMoves;
+		this.size = size;
+	}
+
+	/**
+	 * Returns the board before the first move.
+	 * @return the board before the first move.
+	 */
+	public Board getInitialBoard() {
+		return initial;
+	}
+
+	/**
+	 * Returns the number of moves.
+	 * @return the number of moves.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the direction in which the empty tile moves in the given move.
+	 * @param i The index of the move.
+	 * @return The direction of the move.
+	 * @throws IndexOutOfBoundsException When the index is negative or not smaller than the number of moves.
+	 */
+	public MoveDirection getMove(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("Move " + i + " of " + size);
+		}
+		return DIRECTIONS[(int) (packedMoves[i / MOVES_PER_LONG] >>> (BITS_PER_MOVE * (i % MOVES_PER_LONG))) & 3];
+	}
+
+	/**
+	 * Returns the last board, which is the solved board for a solution.
+	 * @return The board after all the moves.
+	 */
+	public Board getLastBoard() {
+		Board board = initial;
+		for (Board next : this) {
+			board = next;
+		}
+		return board;
+	}
+
+	/**
+	 * Returns an iterator over the initial board and the board after every move.
+	 *  Every board is created when it is asked for, so only the last returned board is kept by the iterator.
+	 * @return an iterator over the size() + 1 boards of the sequence.
+	 */
+	@Override
+	public Iterator<Board> iterator() {
+		return new Iterator<Board>() {
+			private int next = -1;
+			private Board board;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public Board next() {
+				if (!this.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				board = (next < 0) ? initial
+						: board.moveBlank(getTargetIndex(board.getSize(), board.getBlankIndex(), getMove(next)));
+				next++;
+				return board;
+			}
+		};
+	}
+
+	/**
+	 * Returns the moves of the transposed board: every move of the empty tile is mirrored over the main diagonal.
+	 *  The ordinals of LEFT and TOP, and of BOTTOM and RIGHT, only differ in the lowest bit, so every long is mirrored with one XOR.
+	 * @param transposedInitial The initial board mirrored over the main diagonal.
+	 * @return The moves which solve the transposed board.
+	 */
+	MoveSequence transpose(Board transposedInitial) {
+		long[] transposed = new long[packedMoves.length];
+		for (int i = 0; i < transposed.length; i++) {
+			int nbrMoves = Math.min(MOVES_PER_LONG, size - i * MOVES_PER_LONG);
+			long mask = (nbrMoves == MOVES_PER_LONG) ? -1L : (1L << (BITS_PER_MOVE * nbrMoves)) - 1;
+			transposed[i] = packedMoves[i] ^ (0x5555555555555555L & mask);
+		}
+		return new MoveSequence(transposedInitial, transposed, size);
+	}
+
+	/**
+	 * Returns the number of longs in which the moves are packed.
+	 * @return the number of longs of the packed moves.
+	 */
+	int getNbrPackedLongs() {
+		return packedMoves.length;
+	}
+
+	/**
+	 * Returns one long of the packed moves.
+	 * @param i The index of the long, it holds the moves 32*i up to 32*i+31.
+	 * @return The long of packed moves.
+	 */
+	long getPackedLong(int i) {
+		return packedMoves[i];
+	}
+
+	/**
+	 * Returns a string representation of the moves: the first letter of every direction.
+	 * @return a string representation of the moves.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder(size);
+		for (int i = 0; i < size; i++) {
+			result.append(this.getMove(i).name().charAt(0));
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Stores the given direction as the given move.
+	 * @param i         The index of the move.
+	 * @param direction The direction of the move.
+	 */
+	private void setMove(int i, MoveDirection direction) {
+		packedMoves[i / MOVES_PER_LONG] |= (long) direction.ordinal() << (BITS_PER_MOVE * (i % MOVES_PER_LONG));
+	}
+
+	/**
+	 * Returns the index of the empty tile after moving it in the given direction.
+	 * @param size       The size of the board.
+	 * @param blankIndex The index of the empty tile.
+	 * @param direction  The direction of the move.
+	 * @return The index of the empty tile after the move.
+	 * @throws IllegalArgumentException When the move leaves the board.
+	 */
+	private static int getTargetIndex(int size, int blankIndex, MoveDirection direction) {
+		int row = blankIndex / size;
+		int column = blankIndex % size;
+		switch (direction) {
+		case LEFT:
+			column--;
+			break;
+		case RIGHT:
+			column++;
+			break;
+		case TOP:
+			row--;
+			break;
+		default:
+			row++;
+		}
+		if (row < 0 || row >= size || column < 0 || column >= size) {
+			throw new IllegalArgumentException("Cannot make the move on the board");
+		}
+		return row * size + column;
+	}
+
+	/**
+	 * Returns the direction of the move of the empty tile between two indexes.
+	 * @param from The index of the empty tile before the move.
+	 * @param to   The index of the empty tile after the move, a neighbour of the first index.
+	 * @return The direction of the move.
+	 */
+	private static MoveDirection getDirection(int from, int to) {
+		if (to == from - 1) {
+			return MoveDirection.LEFT;
+		} else if (to == from + 1) {
+			return MoveDirection.RIGHT;
+		} else if (to < from) {
+			return MoveDirection.TOP;
+		}
+		return MoveDirection.BOTTOM;
+	}
+
+}
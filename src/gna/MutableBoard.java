@@ -0,0 +1,131 @@
+package gna;
+
+/**
+ * A mutable board stores the tiles of a board in a flat array and changes them in place.
+ *  It is used by searches which walk one path at a time (like IDA*), every move is undone by moving the empty tile back.
+ *  The Hamming and Manhattan distances are updated incrementally on every move.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+class MutableBoard implements TileGrid {
+
+	/**
+	 * Variable storing the size (number of rows and columns) of the board.
+	 */
+	private final int size;
+
+	/**
+	 * Variable storing the tiles row by row.
+	 */
+	private final int[] tiles;
+
+	/**
+	 * Variable storing the index of the empty tile.
+	 */
+	private int blankIndex;
+
+	/**
+	 * Variable storing the Hamming distance of the board.
+	 */
+	private int hammingDistance;
+
+	/**
+	 * Variable storing the sum of the Manhattan distances of the board.
+	 */
+	private int manhattanDistance;
+
+	/**
+	 * Initialises a mutable board with the tiles of the given board.
+	 * @param board The board of which the tiles are copied.
+	 */
+	MutableBoard(Board board) {
+		this.size = board.getSize();
+		this.tiles = new int[size * size];
+		for (int index = 0; index < tiles.length; index++) {
+			tiles[index] = board.getValue(index);
+		}
+		this.blankIndex = board.getBlankIndex();
+		this.hammingDistance = board.hamming();
+		this.manhattanDistance = board.manhattan();
+	}
+
+	/**
+	 * Moves the tile on the given index into the empty position.
+	 *  Moving the empty tile back to its previous index undoes the move.
+	 * @param target The index of the tile which will be moved, a neighbour of the empty tile.
+	 * @return The value of the moved tile.
+	 */
+	int moveBlank(int target) {
+		int tile = tiles[target];
+		hammingDistance += (blankIndex != tile - 1 ? 1 : 0) - (target != tile - 1 ? 1 : 0);
+		manhattanDistance += Board.getDistance(size, blankIndex, tile) - Board.getDistance(size, target, tile);
+		tiles[blankIndex] = tile;
+		tiles[target] = 0;
+		blankIndex = target;
+		return tile;
+	}
+
+	/**
+	 * Returns the index reached when going one step in the given direction from the empty tile.
+	 * @param direction The direction of the step.
+	 * @return The index of the neighbour of the empty tile in the given direction; -1 when it would leave the board.
+	 */
+	int getTargetIndex(MoveDirection direction) {
+		int row = blankIndex / size;
+		int column = blankIndex % size;
+		switch (direction) {
+		case LEFT:
+			return column > 0 ? blankIndex - 1 : -1;
+		case RIGHT:
+			return column < size - 1 ? blankIndex + 1 : -1;
+		case TOP:
+			return row > 0 ? blankIndex - size : -1;
+		case BOTTOM:
+			return row < size - 1 ? blankIndex + size : -1;
+		default:
+			throw new IllegalArgumentException("Cannot make the move on the board");
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getValue(int index) {
+		return tiles[index];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getBlankIndex() {
+		return blankIndex;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hamming() {
+		return hammingDistance;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int manhattan() {
+		return manhattanDistance;
+	}
+
+}
@@ -0,0 +1,241 @@
+package gna;
+
+import java.util.Arrays;
+
+/**
+ * A node arena stores the nodes of an A* search in parallel primitive arrays instead of one BoardState per node.
+ *  A node is addressed by its int id and consists of the tiles of its board packed in a long, the number of moves,
+ *  the heuristic value, the id of its parent, the index of the empty tile and the move which led to it:
+ *  18 bytes per node and no object at all. The arena also keeps the transposition table and the queue of the search.
+ *  Clearing the arena keeps all its arrays, so one arena can be reused by the solves of a batch without allocating again.
+ *  An arena is not thread-safe, every thread needs its own.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class NodeArena {
+
+	/**
+	 * Variable storing the largest size of a board of which the tiles fit in a long.
+	 */
+	public static final int MAX_SIZE = 4;
+
+	/**
+	 * Variable storing the default number of nodes for which room is made at once.
+	 */
+	private static final int DEFAULT_CAPACITY = 1 << 12;
+
+	/**
+	 * Variable storing the largest number of nodes an arena can hold.
+	 */
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	/**
+	 * Variable storing the tiles of the board of every node, 4 bits per tile.
+	 */
+	private long[] tiles;
+
+	/**
+	 * Variable storing the id of the parent of every node; -1 for the initial board.
+	 */
+	private int[] parents;
+
+	/**
+	 * Variable storing the number of moves made to reach every node.
+	 */
+	private short[] nbrMoves;
+
+	/**
+	 * Variable storing the heuristic value of every node.
+	 */
+	private short[] heuristics;
+
+	/**
+	 * Variable storing the index of the empty tile of every node.
+	 */
+	private byte[] blanks;
+
+	/**
+	 * Variable storing the ordinal of the MoveDirection which led to every node; -1 for the initial board.
+	 */
+	private byte[] moves;
+
+	/**
+	 * Variable storing the number of nodes.
+	 */
+	private int size;
+
+	/**
+	 * Variable storing the fewest number of moves with which every board was reached.
+	 */
+	private final TranspositionTable fewestMoves = new TranspositionTable();
+
+	/**
+	 * Variable storing the ids of the nodes which still have to be expanded.
+	 */
+	private final IntBucketQueue open = new IntBucketQueue();
+
+	/**
+	 * Initialises an empty arena.
+	 * @effect | this(DEFAULT_CAPACITY)
+	 */
+	public NodeArena() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Initialises an empty arena with room for the given number of nodes.
+	 * @param initialCapacity The number of nodes for which room is made.
+	 * @throws IllegalArgumentException When the capacity is not positive.
+	 */
+	public NodeArena(int initialCapacity) {
+		if (initialCapacity <= 0 || initialCapacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("The capacity needs to be positive");
+		}
+		this.tiles = new long[initialCapacity];
+		this.parents = new int[initialCapacity];
+		this.nbrMoves = new short[initialCapacity];
+		this.heuristics = new short[initialCapacity];
+		this.blanks = new byte[initialCapacity];
+		this.moves = new byte[initialCapacity];
+	}
+
+	/**
+	 * Adds a node.
+	 * @param tiles     The tiles of the board, 4 bits per tile.
+	 * @param parent    The id of the parent; -1 for the initial board.
+	 * @param nbrMoves  The number of moves made to reach the board.
+	 * @param heuristic The heuristic value of the board.
+	 * @param blank     The index of the empty tile.
+	 * @param move      The ordinal of the MoveDirection which led to the board; -1 for the initial board.
+	 * @return The id of the node.
+	 * @throws IllegalStateException When the arena is full.
+	 */
+	int add(long tiles, int parent, int nbrMoves, int heuristic, int blank, int move) {
+		if (size == this.tiles.length) {
+			this.grow();
+		}
+		int id = size++;
+		this.tiles[id] = tiles;
+		this.parents[id] = parent;
+		this.nbrMoves[id] = (short) nbrMoves;
+		this.heuristics[id] = (short) heuristic;
+		this.blanks[id] = (byte) blank;
+		this.moves[id] = (byte) move;
+		return id;
+	}
+
+	/**
+	 * Returns the tiles of the board of the given node.
+	 * @param id The id of the node.
+	 * @return the tiles, 4 bits per tile.
+	 */
+	long getTiles(int id) {
+		return tiles[id];
+	}
+
+	/**
+	 * Returns the id of the parent of the given node.
+	 * @param id The id of the node.
+	 * @return the id of the parent; -1 for the initial board.
+	 */
+	int getParent(int id) {
+		return parents[id];
+	}
+
+	/**
+	 * Returns the number of moves made to reach the given node.
+	 * @param id The id of the node.
+	 * @return the number of moves.
+	 */
+	int getNbrMoves(int id) {
+		return nbrMoves[id];
+	}
+
+	/**
+	 * Returns the heuristic value of the given node.
+	 * @param id The id of the node.
+	 * @return the heuristic value.
+	 */
+	int getHeuristic(int id) {
+		return heuristics[id];
+	}
+
+	/**
+	 * Returns the index of the empty tile of the given node.
+	 * @param id The id of the node.
+	 * @return the index of the empty tile.
+	 */
+	int getBlank(int id) {
+		return blanks[id];
+	}
+
+	/**
+	 * Returns the move which led to the given node.
+	 * @param id The id of the node.
+	 * @return the ordinal of the MoveDirection; -1 for the initial board.
+	 */
+	int getMove(int id) {
+		return moves[id];
+	}
+
+	/**
+	 * Returns the transposition table of the search.
+	 * @return the transposition table.
+	 */
+	TranspositionTable getFewestMoves() {
+		return fewestMoves;
+	}
+
+	/**
+	 * Returns the queue of the search.
+	 * @return the queue of the ids which still have to be expanded.
+	 */
+	IntBucketQueue getOpen() {
+		return open;
+	}
+
+	/**
+	 * Returns the number of nodes.
+	 * @return the number of nodes.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of nodes the arena can hold before it grows.
+	 * @return the capacity.
+	 */
+	public int getCapacity() {
+		return tiles.length;
+	}
+
+	/**
+	 * Removes all the nodes, the transposition table and the queue; all the arrays are kept.
+	 * @post | new.size() == 0
+	 */
+	public void clear() {
+		size = 0;
+		fewestMoves.clear();
+		open.clear();
+	}
+
+	/**
+	 * Grows all the arrays by half.
+	 * @throws IllegalStateException When the arena cannot grow anymore.
+	 */
+	private void grow() {
+		if (tiles.length == MAX_CAPACITY) {
+			throw new IllegalStateException("The arena cannot hold more than " + MAX_CAPACITY + " nodes");
+		}
+		int capacity = (int) Math.min(MAX_CAPACITY, tiles.length + (tiles.length >> 1) + 1L);
+		tiles = Arrays.copyOf(tiles, capacity);
+		parents = Arrays.copyOf(parents, capacity);
+		nbrMoves = Arrays.copyOf(nbrMoves, capacity);
+		heuristics = Arrays.copyOf(heuristics, capacity);
+		blanks = Arrays.copyOf(blanks, capacity);
+		moves = Arrays.copyOf(moves, capacity);
+	}
+
+}
@@ -0,0 +1,366 @@
+package gna;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The pattern database builder computes disjoint additive pattern databases and writes them to a binary file.
+ *  The tiles are divided in disjoint groups. For every group, a table stores for every placement of the group tiles
+ *  the fewest number of moves of group tiles needed to bring them to their goal positions, with the other tiles seen as
+ *  indistinguishable. Since only the moves of group tiles are counted, the values of the groups can be added.
+ *  The tables are computed with a breadth-first search backwards from the goal, in which moving the empty tile to a
+ *  position without group tile costs nothing (a 0-1 breadth-first search).
+ *
+ *  File format (big-endian):
+ *  magic (int) | version (int) | board size (int) | number of groups (int)
+ *  then per group: number of tiles (int) | the tiles (int each) | number of entries (int)
+ *  then per group, in the same order: one byte per entry.
+ *  An entry is found by the rank of the positions of the group tiles (see getRank).
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class PatternDatabaseBuilder {
+
+	/**
+	 * Variable storing the magic number at the start of every pattern database file ("GPDB").
+	 */
+	public static final int MAGIC = 0x47504442;
+
+	/**
+	 * Variable storing the version of the file format.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Variable storing the distance of positions which were not reached yet.
+	 */
+	private static final int UNREACHED = 0xFF;
+
+	/**
+	 * Builds the default pattern database of the given size and writes it to the given file.
+	 * @param args The board size and the path of the file.
+	 * @throws IOException When the file cannot be written.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: PatternDatabaseBuilder <board size> <output file>");
+			return;
+		}
+		int size = Integer.parseInt(args[0]);
+		Stopwatch stopwatch = new Stopwatch();
+		write(args[1], size, getDefaultGroups(size));
+		System.out.println("Pattern database written to " + args[1] + " in " + stopwatch.elapsedTime() + " ms");
+	}
+
+	/**
+	 * Returns the default disjoint groups for the given board size.
+	 *  3x3 boards use a 4-4 partition, 4x4 boards use a 6-6-3 partition.
+	 * @param size The board size.
+	 * @return The default groups of tiles.
+	 * @throws IllegalArgumentException When there is no default partition for the size.
+	 */
+	public static int[][] getDefaultGroups(int size) {
+		switch (size) {
+		case 3:
+			return new int[][] {{1, 2, 3, 4}, {5, 6, 7, 8}};
+		case 4:
+			return new int[][] {{1, 5, 6, 9, 10, 13}, {7, 8, 11, 12, 14, 15}, {2, 3, 4}};
+		default:
+			throw new IllegalArgumentException("There is no default pattern database partition for boards of size " + size);
+		}
+	}
+
+	/**
+	 * Computes the tables of the given groups and writes them to the given file.
+	 * @param path   The path of the file.
+	 * @param size   The board size.
+	 * @param groups The disjoint groups of tiles.
+	 * @throws IOException When the file cannot be written.
+	 * @throws IllegalArgumentException When the groups are not disjoint or contain values which are no tiles.
+	 */
+	public static void write(String path, int size, int[][] groups) throws IOException {
+		checkGroups(size, groups);
+		byte[][] tables = new byte[groups.length][];
+		for (int i = 0; i < groups.length; i++) {
+			tables[i] = computeTable(size, groups[i]);
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(size);
+			out.writeInt(groups.length);
+			for (int i = 0; i < groups.length; i++) {
+				out.writeInt(groups[i].length);
+				for (int tile : groups[i]) {
+					out.writeInt(tile);
+				}
+				out.writeInt(tables[i].length);
+			}
+			for (byte[] table : tables) {
+				out.write(table);
+			}
+		}
+	}
+
+	/**
+	 * Computes the table of one group.
+	 * @param size  The board size.
+	 * @param group The tiles of the group.
+	 * @return The table with for every rank of the group tile positions the fewest number of group tile moves.
+	 */
+	static byte[] computeTable(int size, int[] group) {
+		int cells = size * size;
+		int nbrTiles = group.length;
+		// A search state contains the positions of the group tiles followed by the position of the empty tile.
+		// Its rank equals (rank of the group tile positions) * (cells - nbrTiles) + (rank of the empty tile).
+		long nbrStates = getNbrPlacements(cells, nbrTiles + 1);
+		if (nbrStates > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The group is too large to compute its table");
+		}
+		byte[] distances = new byte[(int) nbrStates];
+		Arrays.fill(distances, (byte) UNREACHED);
+
+		int[] positions = new int[nbrTiles + 1];
+		for (int i = 0; i < nbrTiles; i++) {
+			positions[i] = group[i] - 1;
+		}
+		positions[nbrTiles] = cells - 1;
+		int goal = (int) getRank(positions, cells);
+		distances[goal] = 0;
+		IntDeque deque = new IntDeque();
+		deque.addFirst(goal);
+
+		boolean[] used = new boolean[cells];
+		while (!deque.isEmpty()) {
+			int state = deque.pollFirst();
+			int distance = distances[state] & 0xFF;
+			getPositions(state, cells, positions, used);
+			int blank = positions[nbrTiles];
+			for (int step = 0; step < 4; step++) {
+				int target = getNeighbour(blank, size, step);
+				if (target < 0) {
+					continue;
+				}
+				int tileIndex = indexOf(positions, nbrTiles, target);
+				int cost = (tileIndex < 0) ? 0 : 1;
+				if (tileIndex >= 0) {
+					positions[tileIndex] = blank;
+				}
+				positions[nbrTiles] = target;
+				int next = (int) getRank(positions, cells);
+				if (distance + cost < (distances[next] & 0xFF)) {
+					distances[next] = (byte) (distance + cost);
+					if (cost == 0) {
+						deque.addFirst(next);
+					} else {
+						deque.addLast(next);
+					}
+				}
+				positions[nbrTiles] = blank;
+				if (tileIndex >= 0) {
+					positions[tileIndex] = target;
+				}
+			}
+		}
+
+		int nbrBlankPlacements = cells - nbrTiles;
+		byte[] table = new byte[(int) (nbrStates / nbrBlankPlacements)];
+		Arrays.fill(table, (byte) UNREACHED);
+		for (int state = 0; state < distances.length; state++) {
+			int entry = state / nbrBlankPlacements;
+			if ((distances[state] & 0xFF) < (table[entry] & 0xFF)) {
+				table[entry] = distances[state];
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Returns the rank of the given distinct positions among all ordered placements of that many positions.
+	 *  Every position is replaced by the number of smaller positions which are not used by the earlier elements,
+	 *  these digits are combined in a falling factorial number system.
+	 * @param positions The distinct positions.
+	 * @param cells     The number of cells of the board.
+	 * @return The rank, between 0 and the number of placements (exclusive).
+	 */
+	static long getRank(int[] positions, int cells) {
+		long rank = 0;
+		for (int i = 0; i < positions.length; i++) {
+			int digit = positions[i];
+			for (int j = 0; j < i; j++) {
+				if (positions[j] < positions[i]) {
+					digit--;
+				}
+			}
+			rank = rank * (cells - i) + digit;
+		}
+		return rank;
+	}
+
+	/**
+	 * Returns the number of ordered placements of the given number of elements on distinct cells.
+	 * @param cells    The number of cells.
+	 * @param elements The number of elements.
+	 * @return cells * (cells - 1) * ... * (cells - elements + 1)
+	 */
+	static long getNbrPlacements(int cells, int elements) {
+		long result = 1;
+		for (int i = 0; i < elements; i++) {
+			result *= (cells - i);
+		}
+		return result;
+	}
+
+	/**
+	 * Stores the positions of the given rank in the given array (the inverse of getRank).
+	 * @param rank      The rank of the positions.
+	 * @param cells     The number of cells of the board.
+	 * @param positions The array in which the positions are stored, its length is the number of elements.
+	 * @param used      An array of cells elements, used as scratch space.
+	 */
+	private static void getPositions(long rank, int cells, int[] positions, boolean[] used) {
+		int nbrElements = positions.length;
+		for (int i = nbrElements - 1; i >= 0; i--) {
+			int base = cells - i;
+			positions[i] = (int) (rank % base);
+			rank /= base;
+		}
+		Arrays.fill(used, false);
+		for (int i = 0; i < nbrElements; i++) {
+			int digit = positions[i];
+			int cell = 0;
+			while (used[cell] || digit > 0) {
+				if (!used[cell]) {
+					digit--;
+				}
+				cell++;
+			}
+			used[cell] = true;
+			positions[i] = cell;
+		}
+	}
+
+	/**
+	 * Returns the index of the element with the given value among the first elements of the array.
+	 * @param values The values.
+	 * @param count  The number of values which are searched.
+	 * @param value  The value which is searched.
+	 * @return The index of the value; -1 when it is not found.
+	 */
+	private static int indexOf(int[] values, int count, int value) {
+		for (int i = 0; i < count; i++) {
+			if (values[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the neighbouring cell of the given cell.
+	 * @param cell The cell.
+	 * @param size The board size.
+	 * @param step The step: 0 left, 1 up, 2 right, 3 down.
+	 * @return The neighbouring cell; -1 when it would leave the board.
+	 */
+	private static int getNeighbour(int cell, int size, int step) {
+		int row = cell / size;
+		int column = cell % size;
+		switch (step) {
+		case 0:
+			return column > 0 ? cell - 1 : -1;
+		case 1:
+			return row > 0 ? cell - size : -1;
+		case 2:
+			return column < size - 1 ? cell + 1 : -1;
+		default:
+			return row < size - 1 ? cell + size : -1;
+		}
+	}
+
+	/**
+	 * Checks whether the given groups are disjoint and only contain tiles of a board of the given size.
+	 * @param size   The board size.
+	 * @param groups The groups of tiles.
+	 * @throws IllegalArgumentException When the groups are not disjoint or contain values which are no tiles.
+	 */
+	private static void checkGroups(int size, int[][] groups) {
+		boolean[] seen = new boolean[size * size];
+		for (int[] group : groups) {
+			if (group.length == 0) {
+				throw new IllegalArgumentException("A group cannot be empty");
+			}
+			for (int tile : group) {
+				if (tile <= 0 || tile >= seen.length || seen[tile]) {
+					throw new IllegalArgumentException("The groups need to be disjoint and only contain tiles from 1 up to size*size-1");
+				}
+				seen[tile] = true;
+			}
+		}
+	}
+
+	/**
+	 * A growable double ended queue of primitive ints, used by the 0-1 breadth-first search.
+	 */
+	private static class IntDeque {
+
+		/**
+		 * Variable storing the elements in a circular buffer, the length is a power of 2.
+		 */
+		private int[] elements = new int[1 << 16];
+
+		/**
+		 * Variable storing the index of the first element.
+		 */
+		private int head;
+
+		/**
+		 * Variable storing the number of elements.
+		 */
+		private int count;
+
+		boolean isEmpty() {
+			return count == 0;
+		}
+
+		void addFirst(int value) {
+			this.ensureCapacity();
+			head = (head - 1) & (elements.length - 1);
+			elements[head] = value;
+			count++;
+		}
+
+		void addLast(int value) {
+			this.ensureCapacity();
+			elements[(head + count) & (elements.length - 1)] = value;
+			count++;
+		}
+
+		int pollFirst() {
+			int value = elements[head];
+			head = (head + 1) & (elements.length - 1);
+			count--;
+			return value;
+		}
+
+		/**
+		 * Doubles the buffer when it is full.
+		 */
+		private void ensureCapacity() {
+			if (count < elements.length) {
+				return;
+			}
+			int[] larger = new int[elements.length * 2];
+			for (int i = 0; i < count; i++) {
+				larger[i] = elements[(head + i) & (elements.length - 1)];
+			}
+			elements = larger;
+			head = 0;
+		}
+	}
+
+}
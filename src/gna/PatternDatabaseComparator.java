@@ -0,0 +1,210 @@
+package gna;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Comparator used for comparing BoardStates.
+ *  The comparator makes use of disjoint additive pattern databases, written by the PatternDatabaseBuilder.
+ *  The heuristic value is the sum of the table entries of every group.
+ *  The tables are memory-mapped read-only, so they are loaded lazily by the operating system
+ *  and multiple processes using the same file share the same pages.
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class PatternDatabaseComparator extends HeuristicComparator {
+
+	/**
+	 * Variable storing the board size of the tables.
+	 */
+	private final int size;
+
+	/**
+	 * Variable storing the tiles of every group.
+	 */
+	private final int[][] groups;
+
+	/**
+	 * Variable storing for every tile the index of its group; -1 for tiles without group.
+	 */
+	private final int[] groupOfTile;
+
+	/**
+	 * Variable storing the mapped table of every group.
+	 */
+	private final MappedByteBuffer[] tables;
+
+	/**
+	 * Initialises a comparator with the given tables.
+	 * @param size   The board size of the tables.
+	 * @param groups The tiles of every group.
+	 * @param tables The mapped table of every group.
+	 */
+	private PatternDatabaseComparator(int size, int[][] groups, MappedByteBuffer[] tables) {
+		this.size = size;
+		this.groups = groups;
+		this.tables = tables;
+		this.groupOfTile = new int[size * size];
+		Arrays.fill(groupOfTile, -1);
+		for (int i = 0; i < groups.length; i++) {
+			for (int tile : groups[i]) {
+				groupOfTile[tile] = i;
+			}
+		}
+	}
+
+	/**
+	 * Loads the pattern databases of the given file.
+	 * @param path The path of a file written by the PatternDatabaseBuilder.
+	 * @return A comparator which uses the tables of the file.
+	 * @throws IOException When the file cannot be read or is not a pattern database file.
+	 */
+	public static PatternDatabaseComparator load(String path) throws IOException {
+		return load(Paths.get(path));
+	}
+
+	/**
+	 * Loads the pattern databases of the given file.
+	 * @param path The path of a file written by the PatternDatabaseBuilder.
+	 * @return A comparator which uses the tables of the file.
+	 * @throws IOException When the file cannot be read or is not a pattern database file.
+	 */
+	public static PatternDatabaseComparator load(Path path) throws IOException {
+		LoadEvent event = new LoadEvent();
+		event.begin();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			event.kind = "pattern database";
+			event.path = path.toString();
+			event.bytes = channel.size();
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), 1 << 12));
+			if (header.remaining() < 16 || header.getInt() != PatternDatabaseBuilder.MAGIC) {
+				throw new IOException(path + " is not a pattern database file");
+			}
+			int version = header.getInt();
+			if (version != PatternDatabaseBuilder.VERSION) {
+				throw new IOException(path + " has unsupported version " + version);
+			}
+			// every count of the header is checked before it is used, so a corrupt file cannot allocate or read too much
+			int size = header.getInt();
+			// a table has at least one entry for every cell, so the file is never smaller than the number of cells
+			if (size < 2 || (long) size * size > channel.size()) {
+				throw new IOException(path + " has unsupported board size " + size);
+			}
+			int cells = size * size;
+			int nbrGroups = header.getInt();
+			if (nbrGroups < 1 || nbrGroups >= cells) {
+				throw new IOException(path + " is corrupt: " + nbrGroups + " groups for " + size + "x" + size + " boards");
+			}
+			int[][] groups = new int[nbrGroups][];
+			int[] lengths = new int[nbrGroups];
+			boolean[] grouped = new boolean[cells];
+			for (int i = 0; i < groups.length; i++) {
+				int nbrTiles = (header.remaining() < 4) ? -1 : header.getInt();
+				if (nbrTiles < 1 || nbrTiles >= cells || header.remaining() < 4L * (nbrTiles + 1)) {
+					throw new IOException(path + " is truncated or corrupt");
+				}
+				groups[i] = new int[nbrTiles];
+				for (int j = 0; j < nbrTiles; j++) {
+					int tile = header.getInt();
+					if (tile < 1 || tile >= cells || grouped[tile]) {
+						throw new IOException(path + " is corrupt: tile " + tile + " cannot be in group " + i);
+					}
+					grouped[tile] = true;
+					groups[i][j] = tile;
+				}
+				lengths[i] = header.getInt();
+			}
+			long offset = header.position();
+			MappedByteBuffer[] tables = new MappedByteBuffer[groups.length];
+			for (int i = 0; i < groups.length; i++) {
+				if (lengths[i] != PatternDatabaseBuilder.getNbrPlacements(size * size, groups[i].length)
+						|| offset + lengths[i] > channel.size()) {
+					throw new IOException(path + " is truncated or corrupt");
+				}
+				tables[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, lengths[i]);
+				offset += lengths[i];
+			}
+			return new PatternDatabaseComparator(size, groups, tables);
+		} finally {
+			event.commit();
+		}
+	}
+
+	/**
+	 * Returns the sum of the table entries of every group.
+	 * {@inheritDoc}
+	 * @throws IllegalArgumentException When the size of the grid differs from the size of the tables.
+	 */
+	@Override
+	public int heuristic(TileGrid grid) {
+		int[] positions = this.getPositionsOfTiles(grid);
+		int result = 0;
+		for (int i = 0; i < groups.length; i++) {
+			result += this.getEntry(i, positions);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the heuristic value after the move, only the entry of the group of the moved tile changes.
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int heuristic(TileGrid grid, int previousHeuristic, int tile, int fromIndex, int toIndex) {
+		int group = groupOfTile[tile];
+		if (group < 0) {
+			return previousHeuristic;
+		}
+		int[] positions = this.getPositionsOfTiles(grid);
+		int after = this.getEntry(group, positions);
+		positions[tile] = fromIndex;
+		return previousHeuristic - this.getEntry(group, positions) + after;
+	}
+
+	/**
+	 * Returns the board size of the tables.
+	 * @return the board size of the tables.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the table entry of the given group.
+	 * @param group     The index of the group.
+	 * @param positions The position of every tile.
+	 * @return The fewest number of moves of group tiles to bring the group tiles to their goal positions.
+	 */
+	private int getEntry(int group, int[] positions) {
+		int[] tiles = groups[group];
+		int[] groupPositions = new int[tiles.length];
+		for (int i = 0; i < tiles.length; i++) {
+			groupPositions[i] = positions[tiles[i]];
+		}
+		return tables[group].get((int) PatternDatabaseBuilder.getRank(groupPositions, size * size)) & 0xFF;
+	}
+
+	/**
+	 * Returns the position of every tile of the grid.
+	 * @param grid The grid.
+	 * @return An array with on index t the position of tile t.
+	 * @throws IllegalArgumentException When the size of the grid differs from the size of the tables.
+	 */
+	private int[] getPositionsOfTiles(TileGrid grid) {
+		if (grid.getSize() != size) {
+			throw new IllegalArgumentException("The pattern database is made for boards of size " + size);
+		}
+		int[] positions = new int[size * size];
+		for (int index = 0; index < positions.length; index++) {
+			positions[grid.getValue(index)] = index;
+		}
+		return positions;
+	}
+
+}
@@ -0,0 +1,504 @@
+package gna;
+
+import java.util.Arrays;
+
+/**
+ * A suboptimal search for large boards which places the tiles row by row and column by column, like a person would.
+ *  The top row of the unsolved region is placed first, then its left column, until only the last 3x3 region is left;
+ *  that region is solved with the fewest moves by an ArenaSearch. A tile is moved one step at a time towards its place:
+ *  the empty tile walks along a shortest path, which avoids the placed tiles, to the neighbour of the tile and swaps with it.
+ *  The last two tiles of a row (or column) are placed together, with a breadth-first search in a small window around them.
+ *  Every step takes a breadth-first search over the board, so the moves and the time grow polynomially with the size.
+ *  The optional post-pass removes every part of the solution which returns to a board that was already reached.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+class PlacementSearch {
+
+	/**
+	 * Variable storing the directions by their ordinal.
+	 */
+	private static final MoveDirection[] DIRECTIONS = MoveDirection.values();
+
+	/**
+	 * Variable storing the size of the last region, which is solved with the fewest moves.
+	 */
+	private static final int LAST_REGION_SIZE = 3;
+
+	/**
+	 * Variable storing the size of the window in which the last two tiles of a row or column are placed.
+	 */
+	private static final int WINDOW_SIZE = 3;
+
+	/**
+	 * Variable storing the board from which the search starts.
+	 */
+	private final Board initial;
+
+	/**
+	 * Variable storing whether the solution is shortened after the search.
+	 */
+	private final boolean shorten;
+
+	/**
+	 * Variable storing the statistics of the search.
+	 */
+	private final SolverStats stats;
+
+	/**
+	 * Variable storing the size of the board.
+	 */
+	private final int size;
+
+	/**
+	 * Variable storing the board which is changed in place.
+	 */
+	private final MutableBoard board;
+
+	/**
+	 * Variable storing the index of every tile value.
+	 */
+	private final int[] positions;
+
+	/**
+	 * Variable storing which indexes the empty tile cannot pass: the placed tiles and the tile which is being moved.
+	 */
+	private final boolean[] locked;
+
+	/**
+	 * Variable storing the search number in which every index was reached by the breadth-first search.
+	 */
+	private final int[] visited;
+
+	/**
+	 * Variable storing the index from which the breadth-first search reached every index.
+	 */
+	private final int[] previous;
+
+	/**
+	 * Variable storing the queue of the breadth-first search.
+	 */
+	private final int[] queue;
+
+	/**
+	 * Variable storing the number of the current breadth-first search.
+	 */
+	private int search;
+
+	/**
+	 * Variable storing the ordinals of the moves made so far.
+	 */
+	private byte[] moves = new byte[64];
+
+	/**
+	 * Variable storing the number of moves made so far.
+	 */
+	private int nbrMoves;
+
+	/**
+	 * Initialises a search from the given board.
+	 * @param initial The board from which the search starts, which is solvable.
+	 * @param shorten Whether the solution is shortened after the search.
+	 * @param stats   The statistics which count the work of the search of the last region.
+	 */
+	PlacementSearch(Board initial, boolean shorten, SolverStats stats) {
+		this.initial = initial;
+		this.shorten = shorten;
+		this.stats = stats;
+		this.size = initial.getSize();
+		this.board = new MutableBoard(initial);
+		int cells = size * size;
+		this.positions = new int[cells];
+		for (int index = 0; index < cells; index++) {
+			positions[initial.getValue(index)] = index;
+		}
+		this.locked = new boolean[cells];
+		this.visited = new int[cells];
+		this.previous = new int[cells];
+		this.queue = new int[cells];
+	}
+
+	/**
+	 * Searches a solution, which does not have the fewest moves in general.
+	 * @return The moves of the solution.
+	 */
+	MoveSequence solve() {
+		int start = 0;
+		for (; size - start > LAST_REGION_SIZE; start++) {
+			this.placeRow(start);
+			this.placeColumn(start);
+		}
+		this.solveLastRegion(start);
+		if (shorten) {
+			this.removeCycles();
+		}
+		MoveDirection[] directions = new MoveDirection[nbrMoves];
+		for (int i = 0; i < nbrMoves; i++) {
+			directions[i] = DIRECTIONS[moves[i]];
+		}
+		return new MoveSequence(initial, directions);
+	}
+
+	/**
+	 * Places the tiles of the given row, from the given column to the right, and locks them.
+	 * @param start The row and the first column of the unsolved region.
+	 */
+	private void placeRow(int start) {
+		int first = start * size + start;
+		int corner = start * size + size - 1;
+		for (int index = first; index < corner - 1; index++) {
+			this.placeTile(index + 1, index);
+			locked[index] = true;
+		}
+		this.placeLastTwo(corner - 1, 1, size);
+	}
+
+	/**
+	 * Places the tiles of the given column, below the given row, and locks them.
+	 * @param start The row and the first column of the unsolved region.
+	 */
+	private void placeColumn(int start) {
+		int first = (start + 1) * size + start;
+		int corner = (size - 1) * size + start;
+		for (int index = first; index < corner - size; index += size) {
+			this.placeTile(index + 1, index);
+			locked[index] = true;
+		}
+		this.placeLastTwo(corner - size, size, 1);
+	}
+
+	/**
+	 * Places the last two tiles of a row or column and locks them.
+	 *  Moving them one by one can trap the empty tile behind them, so they are solved together in a window of 3 by 3 indexes:
+	 *  the second to last index and the last index, with the two rows (or columns) next to them, one index further back.
+	 *  Both tiles and the empty tile are first moved into the window; a breadth-first search over the indexes of the
+	 *  two tiles and the empty tile in the window then finds the fewest moves which put both tiles in place.
+	 * @param before The index of the second to last tile of the row or column.
+	 * @param along  The difference between the indexes of two neighbours in the row or column.
+	 * @param across The difference between the indexes of two neighbours in the direction away from the placed tiles.
+	 */
+	private void placeLastTwo(int before, int along, int across) {
+		int last = before + along;
+		if (board.getValue(before) != before + 1 || board.getValue(last) != last + 1) {
+			this.placeTile(before + 1, before + across);
+			locked[before + across] = true;
+			while (this.getWindowIndex(positions[last + 1], before, along, across) < 0) {
+				this.moveTileCloser(last + 1, before + 2 * across + along);
+			}
+			locked[positions[last + 1]] = true;
+			if (this.getWindowIndex(board.getBlankIndex(), before, along, across) < 0) {
+				this.search(board.getBlankIndex());
+				int next = -1;
+				for (int window = 0; window < WINDOW_SIZE * WINDOW_SIZE; window++) {
+					int index = this.getIndex(window, before, along, across);
+					if (index >= 0 && visited[index] == search && (next < 0 || this.getPathLength(index) < this.getPathLength(next))) {
+						next = index;
+					}
+				}
+				this.followPath(next);
+			}
+			locked[before + across] = false;
+			locked[positions[last + 1]] = false;
+			this.solveWindow(before, along, across);
+		}
+		locked[before] = true;
+		locked[last] = true;
+	}
+
+	/**
+	 * Puts the tiles of the second to last and the last index of a row or column in place with the fewest moves
+	 *  which stay in the window, given that both tiles and the empty tile are in the window.
+	 *  A state of the search is the window index of the empty tile, of the second to last tile and of the last tile.
+	 * @param before The index of the second to last tile of the row or column.
+	 * @param along  The difference between the indexes of two neighbours in the row or column.
+	 * @param across The difference between the indexes of two neighbours in the direction away from the placed tiles.
+	 */
+	private void solveWindow(int before, int along, int across) {
+		int cells = WINDOW_SIZE * WINDOW_SIZE;
+		int[] previousStates = new int[cells * cells * cells];
+		Arrays.fill(previousStates, -1);
+		int[] states = new int[previousStates.length];
+		int first = this.getWindowIndex(board.getBlankIndex(), before, along, across) * cells * cells
+				+ this.getWindowIndex(positions[before + 1], before, along, across) * cells
+				+ this.getWindowIndex(positions[before + along + 1], before, along, across);
+		int goal = this.getWindowIndex(before, before, along, across) * cells + this.getWindowIndex(before + along, before, along, across);
+		int head = 0;
+		int tail = 0;
+		states[tail++] = first;
+		previousStates[first] = first;
+		int state = first;
+		while (state % (cells * cells) != goal) {
+			state = states[head++];
+			int blank = state / (cells * cells);
+			int second = state / cells % cells;
+			int lastTile = state % cells;
+			int row = blank / WINDOW_SIZE;
+			int column = blank % WINDOW_SIZE;
+			for (int neighbor : new int[] {(row > 0) ? blank - WINDOW_SIZE : -1, (row < WINDOW_SIZE - 1) ? blank + WINDOW_SIZE : -1,
+					(column > 0) ? blank - 1 : -1, (column < WINDOW_SIZE - 1) ? blank + 1 : -1}) {
+				if (neighbor >= 0 && this.getIndex(neighbor, before, along, across) >= 0) {
+					int next = neighbor * cells * cells + ((second == neighbor) ? blank : second) * cells + ((lastTile == neighbor) ? blank : lastTile);
+					if (previousStates[next] < 0) {
+						previousStates[next] = state;
+						states[tail++] = next;
+					}
+				}
+			}
+		}
+		int length = 0;
+		for (int path = state; path != first; path = previousStates[path]) {
+			length++;
+		}
+		int[] path = new int[length];
+		for (int i = length - 1; i >= 0; i--) {
+			path[i] = this.getIndex(state / (cells * cells), before, along, across);
+			state = previousStates[state];
+		}
+		for (int index : path) {
+			this.move(index);
+		}
+	}
+
+	/**
+	 * Returns the window index of a board index.
+	 * @param index  The board index.
+	 * @param before The index of the second to last tile of the row or column.
+	 * @param along  The difference between the indexes of two neighbours in the row or column.
+	 * @param across The difference between the indexes of two neighbours in the direction away from the placed tiles.
+	 * @return The window index, the number of rows (or columns) away from the row (or column) times WINDOW_SIZE
+	 *         plus one more than the number of steps along it from the second to last index; -1 when the index is not in the window.
+	 */
+	private int getWindowIndex(int index, int before, int along, int across) {
+		for (int window = 0; window < WINDOW_SIZE * WINDOW_SIZE; window++) {
+			if (this.getIndex(window, before, along, across) == index) {
+				return window;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the board index of a window index.
+	 * @param window The window index.
+	 * @param before The index of the second to last tile of the row or column.
+	 * @param along  The difference between the indexes of two neighbours in the row or column.
+	 * @param across The difference between the indexes of two neighbours in the direction away from the placed tiles.
+	 * @return The board index; -1 for the first window index, of which the tile is already placed.
+	 */
+	private int getIndex(int window, int before, int along, int across) {
+		if (window == 0) {
+			return -1;
+		}
+		return before + (window / WINDOW_SIZE) * across + (window % WINDOW_SIZE - 1) * along;
+	}
+
+	/**
+	 * Moves the given tile to the given index without moving the locked tiles.
+	 * @param value  The value of the tile.
+	 * @param target The index to which the tile moves.
+	 * @throws IllegalStateException When the empty tile cannot reach the tile.
+	 */
+	private void placeTile(int value, int target) {
+		while (positions[value] != target) {
+			this.moveTileCloser(value, target);
+		}
+	}
+
+	/**
+	 * Moves the given tile one step closer to the given index without moving the locked tiles.
+	 *  The empty tile takes the shortest path to a neighbour of the tile which is closer to the index and swaps with it.
+	 * @param value  The value of the tile, which is not on the index.
+	 * @param target The index to which the tile moves.
+	 * @throws IllegalStateException When the empty tile cannot reach the tile.
+	 */
+	private void moveTileCloser(int value, int target) {
+		int index = positions[value];
+		locked[index] = true;
+		this.search(board.getBlankIndex());
+		int next = -1;
+		int nextDistance = Integer.MAX_VALUE;
+		for (int neighbor : this.getCloserNeighbors(index, target)) {
+			if (neighbor >= 0 && !locked[neighbor] && visited[neighbor] == search) {
+				int distance = this.getPathLength(neighbor);
+				if (distance < nextDistance) {
+					next = neighbor;
+					nextDistance = distance;
+				}
+			}
+		}
+		locked[index] = false;
+		if (next < 0) {
+			throw new IllegalStateException("The empty tile cannot reach tile " + value);
+		}
+		this.followPath(next);
+		this.move(index);
+	}
+
+	/**
+	 * Returns the neighbours of an index which are closer to the target index.
+	 * @param index  The index.
+	 * @param target The target index.
+	 * @return The row neighbour and the column neighbour towards the target; -1 when the index is already in that row or column.
+	 */
+	private int[] getCloserNeighbors(int index, int target) {
+		int row = index / size;
+		int column = index % size;
+		int targetRow = target / size;
+		int targetColumn = target % size;
+		return new int[] {
+			(row < targetRow) ? index + size : (row > targetRow) ? index - size : -1,
+			(column < targetColumn) ? index + 1 : (column > targetColumn) ? index - 1 : -1
+		};
+	}
+
+	/**
+	 * Searches the shortest paths from the given index to all the indexes which are not locked.
+	 * @param from The index from which the paths start.
+	 * @post The indexes reached have visited set to the new search number, and previous set to the index before them.
+	 */
+	private void search(int from) {
+		search++;
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = from;
+		visited[from] = search;
+		previous[from] = -1;
+		while (head < tail) {
+			int index = queue[head++];
+			int row = index / size;
+			int column = index % size;
+			if (column > 0) {
+				tail = this.visit(index - 1, index, tail);
+			}
+			if (row > 0) {
+				tail = this.visit(index - size, index, tail);
+			}
+			if (column < size - 1) {
+				tail = this.visit(index + 1, index, tail);
+			}
+			if (row < size - 1) {
+				tail = this.visit(index + size, index, tail);
+			}
+		}
+	}
+
+	/**
+	 * Adds the given index to the queue of the breadth-first search, unless it was reached already or is locked.
+	 * @param index The index.
+	 * @param from  The index from which it is reached.
+	 * @param tail  The end of the queue.
+	 * @return The new end of the queue.
+	 */
+	private int visit(int index, int from, int tail) {
+		if (!locked[index] && visited[index] != search) {
+			visited[index] = search;
+			previous[index] = from;
+			queue[tail++] = index;
+		}
+		return tail;
+	}
+
+	/**
+	 * Returns the length of the path found by the last breadth-first search to the given index.
+	 * @param target The index, which was reached.
+	 * @return The number of moves of the path.
+	 */
+	private int getPathLength(int target) {
+		int length = 0;
+		for (int index = target; previous[index] >= 0; index = previous[index]) {
+			length++;
+		}
+		return length;
+	}
+
+	/**
+	 * Moves the empty tile along the path found by the last breadth-first search to the given index.
+	 * @param target The index, which was reached.
+	 */
+	private void followPath(int target) {
+		int length = this.getPathLength(target);
+		int[] path = new int[length];
+		for (int index = target, i = length - 1; i >= 0; index = previous[index], i--) {
+			path[i] = index;
+		}
+		for (int index : path) {
+			this.move(index);
+		}
+	}
+
+	/**
+	 * Solves the last region, in the bottom right corner of the board, with the fewest moves.
+	 * @param start The first row and column of the region, which holds the empty tile and the only tiles which are not placed.
+	 */
+	private void solveLastRegion(int start) {
+		int regionSize = size - start;
+		int[][] tiles = new int[regionSize][regionSize];
+		for (int row = 0; row < regionSize; row++) {
+			for (int column = 0; column < regionSize; column++) {
+				int value = board.getValue((start + row) * size + start + column);
+				if (value != 0) {
+					int target = value - 1;
+					value = (target / size - start) * regionSize + target % size - start + 1;
+				}
+				tiles[row][column] = value;
+			}
+		}
+		MoveSequence regionMoves = new ArenaSearch(new Board(tiles), new ManhattanComparator(), new NodeArena(), stats).solve();
+		for (int i = 0; i < regionMoves.size(); i++) {
+			this.move(board.getTargetIndex(regionMoves.getMove(i)));
+		}
+	}
+
+	/**
+	 * Moves the empty tile to the given index and stores the move.
+	 * @param target The index, a neighbour of the empty tile.
+	 */
+	private void move(int target) {
+		int blank = board.getBlankIndex();
+		MoveDirection direction = (target == blank - 1) ? MoveDirection.LEFT : (target == blank + 1) ? MoveDirection.RIGHT
+				: (target < blank) ? MoveDirection.TOP : MoveDirection.BOTTOM;
+		positions[board.moveBlank(target)] = blank;
+		positions[0] = target;
+		if (nbrMoves == moves.length) {
+			moves = Arrays.copyOf(moves, moves.length * 2);
+		}
+		moves[nbrMoves++] = (byte) direction.ordinal();
+	}
+
+	/**
+	 * Removes every part of the moves which starts and ends on the same board, so every board is reached at most once.
+	 *  The moves are replayed from the initial board with the Zobrist hash of every board; a board which was reached before
+	 *  drops all the moves made since then. A move followed by its reverse is the shortest such part.
+	 * @post No board is reached twice by the moves.
+	 */
+	private void removeCycles() {
+		MutableBoard replay = new MutableBoard(initial);
+		TranspositionTable reached = new TranspositionTable();
+		long[] path = new long[nbrMoves + 1];
+		// the key is the Zobrist hash of the tiles which moved, which tells the boards apart just as well
+		long key = 0;
+		path[0] = key;
+		reached.put(key, 0);
+		int kept = 0;
+		for (int i = 0; i < nbrMoves; i++) {
+			int blank = replay.getBlankIndex();
+			int target = replay.getTargetIndex(DIRECTIONS[moves[i]]);
+			int tile = replay.moveBlank(target);
+			key ^= ZobristKeys.get(size, target, tile) ^ ZobristKeys.get(size, blank, tile);
+			if (reached.contains(key)) {
+				int earlier = reached.get(key);
+				// boards dropped before are still in the table, they only count when they are on the kept path
+				if (earlier <= kept && path[earlier] == key) {
+					kept = earlier;
+					continue;
+				}
+			}
+			moves[kept++] = moves[i];
+			path[kept] = key;
+			reached.put(key, kept);
+		}
+		nbrMoves = kept;
+	}
+
+}
@@ -0,0 +1,58 @@
+package gna;
+
+/**
+ * The SearchMode enumeration stores the search algorithms the Solver can use.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public enum SearchMode {
+	/**
+	 * Best-first A* search with a priority queue and a transposition table.
+	 */
+	A_STAR,
+	/**
+	 * Best-first A* search like A_STAR, with a BucketQueue instead of a binary heap as priority queue.
+	 */
+	BUCKET_A_STAR,
+	/**
+	 * Iterative deepening A*, which only keeps the current path in memory.
+	 */
+	IDA_STAR,
+	/**
+	 * Bidirectional search which meets in the middle, forward from the initial board and backward from the solved board.
+	 */
+	BIDIRECTIONAL,
+	/**
+	 * Hash distributed A*, which expands the boards with one worker thread per available processor.
+	 */
+	HDA_STAR,
+	/**
+	 * Simplified memory-bounded A*, which forgets the worst states when its budget is full and still finds the fewest moves.
+	 *  Without an explicit budget it keeps as many states as fit in a quarter of the maximum heap.
+	 */
+	SMA_STAR,
+	/**
+	 * Best-first A* search like BUCKET_A_STAR, on the node ids of a NodeArena instead of BoardState objects.
+	 *  Boards larger than NodeArena.MAX_SIZE are solved with BUCKET_A_STAR.
+	 */
+	ARENA_A_STAR,
+	/**
+	 * Places the tiles row by row and column by column and solves the last 3x3 region with the fewest moves.
+	 *  It solves large boards in polynomial time, but the solution does not have the fewest moves in general.
+	 *  The heuristic is not used, the last region is solved with the Manhattan distance.
+	 */
+	PLACEMENT,
+	/**
+	 * Like PLACEMENT, after which every part of the solution which returns to a board that was already reached is removed.
+	 */
+	SHORTENED_PLACEMENT;
+
+	/**
+	 * Returns whether the search algorithm finds a solution with the fewest moves.
+	 * @return False for PLACEMENT and SHORTENED_PLACEMENT; otherwise true.
+	 */
+	public boolean isOptimal() {
+		return this != PLACEMENT && this != SHORTENED_PLACEMENT;
+	}
+}
@@ -0,0 +1,338 @@
+package gna;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Simplified memory-bounded A* (SMA*) search.
+ *  The search keeps at most a fixed number of states in memory. When a state needs to be expanded and there is no room
+ *  for its neighbours, the worst leaves are forgotten: the leaves with the highest priority, the shallowest first.
+ *  The priority of a forgotten leaf is backed up to its parent, which is queued again and regenerates its forgotten
+ *  neighbours when its turn comes. Every priority stays a lower bound on the number of moves of a solution through the state,
+ *  so the first solved board which is polled has the fewest moves, as long as the budget can hold its path.
+ *  The states form a tree: boards are not shared between paths, only the move back to the previous board is pruned.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+class SmaStarSearch {
+
+	/**
+	 * Variable storing the smallest number of states which can be kept: the initial board and its neighbours.
+	 */
+	static final long MIN_NODES = 5;
+
+	/**
+	 * Variable storing the estimated number of bytes of a state of which the board is packed in a long,
+	 *  with its entries in the two tree sets (compressed references).
+	 */
+	private static final long PACKED_NODE_BYTES = 176;
+
+	/**
+	 * Variable storing the priority of a state which has nothing left to expand.
+	 */
+	private static final int NONE = Integer.MAX_VALUE;
+
+	/**
+	 * Variable storing the board from which the search starts.
+	 */
+	private final Board initial;
+
+	/**
+	 * Variable storing the heuristic used for the priorities.
+	 */
+	private final HeuristicComparator heuristic;
+
+	/**
+	 * Variable storing the largest number of states which are kept in memory.
+	 */
+	private final long maxNodes;
+
+	/**
+	 * Variable storing the statistics of the search.
+	 */
+	private final SolverStats stats;
+
+	/**
+	 * Variable storing the states which still have neighbours to generate, the best first.
+	 */
+	private final TreeSet<Node> open = new TreeSet<>(NODE_ORDER);
+
+	/**
+	 * Variable storing the states of which no neighbours are in memory, the worst last.
+	 */
+	private final TreeSet<Node> leaves = new TreeSet<>(NODE_ORDER);
+
+	/**
+	 * Variable storing the number of states in memory.
+	 */
+	private long nbrNodes;
+
+	/**
+	 * Variable storing the number of states created, used to order states with equal priorities and moves.
+	 */
+	private long nbrCreated;
+
+	/**
+	 * Variable storing the order of the states: the smallest priority first, then the most moves, then the oldest.
+	 */
+	private static final Comparator<Node> NODE_ORDER = new Comparator<Node>() {
+		@Override
+		public int compare(Node node1, Node node2) {
+			int result = Integer.compare(node1.priority, node2.priority);
+			if (result == 0) {
+				result = Integer.compare(node2.nbrMoves, node1.nbrMoves);
+			}
+			return (result != 0) ? result : Long.compare(node1.id, node2.id);
+		}
+	};
+
+	/**
+	 * Initialises a search from the given board.
+	 * @param initial   The board from which the search starts.
+	 * @param heuristic The heuristic used for the priorities.
+	 * @param maxNodes  The largest number of states which are kept in memory.
+	 * @param stats     The statistics which count the work of the search.
+	 * @throws IllegalArgumentException When the budget is smaller than MIN_NODES.
+	 */
+	SmaStarSearch(Board initial, HeuristicComparator heuristic, long maxNodes, SolverStats stats) {
+		if (maxNodes < MIN_NODES) {
+			throw new IllegalArgumentException("The search needs room for at least " + MIN_NODES + " states");
+		}
+		this.initial = initial;
+		this.heuristic = heuristic;
+		this.maxNodes = maxNodes;
+		this.stats = stats;
+	}
+
+	/**
+	 * Returns the number of states which fit in the given number of bytes.
+	 * @param size     The size of the boards.
+	 * @param maxBytes The number of bytes which the states may use.
+	 * @return The estimated number of states; at least MIN_NODES.
+	 */
+	static long getNodeBudget(int size, long maxBytes) {
+		// boards larger than 4x4 also keep their tiles in a byte array
+		long nodeBytes = PACKED_NODE_BYTES + (size > 4 ? 16 + ((size * size + 7) & ~7) : 0);
+		return Math.max(MIN_NODES, maxBytes / nodeBytes);
+	}
+
+	/**
+	 * Searches a solution with the fewest moves.
+	 * @return The solution state, of which the previous states lead back to the initial board.
+	 * @throws IllegalStateException When the budget cannot hold the path to a solution.
+	 */
+	BoardState solve() {
+		Node root = new Node(initial, null, 0, heuristic.heuristic(initial), 0);
+		stats.heuristicEvaluated();
+		root.priority = root.heuristic;
+		nbrNodes = 1;
+		open.add(root);
+		leaves.add(root);
+		while (true) {
+			Node best = open.pollFirst();
+			if (best == null || best.priority == NONE) {
+				throw new IllegalStateException("No solution was found within the budget of " + maxNodes + " states");
+			}
+			leaves.remove(best);
+			if (best.board.isSolved()) {
+				return this.getBoardState(best);
+			}
+			this.expand(best);
+			stats.updatePeakOpenSize(open.size());
+		}
+	}
+
+	/**
+	 * Generates the neighbours of the given state which are not in memory, forgetting the worst leaves to make room for them.
+	 *  The priority of a neighbour is at least the priority of the state, which is a lower bound for all its neighbours.
+	 * @param node The state, which is neither queued nor a leaf while it is expanded.
+	 */
+	private void expand(Node node) {
+		stats.expanded();
+		int base = node.priority;
+		stats.updateBound(base);
+		node.priority = NONE;
+		// the children of the state are never forgotten, so its missing neighbours stay the same while room is made
+		List<Board> missing = this.getMissingNeighbors(node);
+		while (nbrNodes + missing.size() > maxNodes) {
+			this.forget(this.getWorstLeaf(node));
+		}
+		for (Board board : missing) {
+			int blank = node.board.getBlankIndex();
+			int value = heuristic.heuristic(board, node.heuristic, board.getValue(blank), board.getBlankIndex(), blank);
+			stats.generated();
+			stats.heuristicEvaluated();
+			Node child = new Node(board, node, node.nbrMoves + 1, value, getDirectionBit(node.board, board));
+			child.priority = Math.max(base, child.nbrMoves + value);
+			node.children |= child.direction;
+			nbrNodes++;
+			open.add(child);
+			leaves.add(child);
+		}
+		if (node.children == 0) {
+			leaves.add(node);
+		}
+	}
+
+	/**
+	 * Returns the neighbours of the given state which are not in memory, except the board before the last move,
+	 *  which is counted as a pruned duplicate.
+	 * @param node The state.
+	 * @return The boards of the missing neighbours.
+	 */
+	private List<Board> getMissingNeighbors(Node node) {
+		List<Board> result = new ArrayList<>(4);
+		for (Board board : node.board.neighbors()) {
+			if (node.parent != null && board.getBlankIndex() == node.parent.board.getBlankIndex()) {
+				stats.duplicatePruned();
+			} else if ((node.children & getDirectionBit(node.board, board)) == 0) {
+				result.add(board);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the leaf which is forgotten first: the one with the highest priority, the shallowest first.
+	 *  The initial board, the state which is being expanded and its neighbours are never forgotten.
+	 * @param expanding The state which is being expanded.
+	 * @return The worst leaf.
+	 * @throws IllegalStateException When no leaf can be forgotten.
+	 */
+	private Node getWorstLeaf(Node expanding) {
+		Iterator<Node> iterator = leaves.descendingIterator();
+		while (iterator.hasNext()) {
+			Node leaf = iterator.next();
+			if (leaf.parent != null && leaf != expanding && leaf.parent != expanding) {
+				return leaf;
+			}
+		}
+		throw new IllegalStateException("The budget of " + maxNodes + " states cannot hold the path to a solution");
+	}
+
+	/**
+	 * Removes the given leaf from memory and backs up its priority to its parent.
+	 *  The parent is queued with the smallest priority of its forgotten neighbours, and becomes a leaf
+	 *  when none of its neighbours are left in memory.
+	 * @param leaf The leaf.
+	 */
+	private void forget(Node leaf) {
+		leaves.remove(leaf);
+		open.remove(leaf);
+		nbrNodes--;
+		Node parent = leaf.parent;
+		open.remove(parent);
+		leaves.remove(parent);
+		parent.children &= ~leaf.direction;
+		parent.priority = Math.min(parent.priority, leaf.priority);
+		if (parent.priority != NONE) {
+			open.add(parent);
+		}
+		if (parent.children == 0) {
+			leaves.add(parent);
+		}
+	}
+
+	/**
+	 * Returns the solution state of the given solved state.
+	 * @param solved The state of the solved board.
+	 * @return The solution state, of which the previous states lead back to the initial board.
+	 */
+	private BoardState getBoardState(Node solved) {
+		List<Node> path = new ArrayList<>(solved.nbrMoves + 1);
+		for (Node node = solved; node != null; node = node.parent) {
+			path.add(node);
+		}
+		BoardState state = null;
+		for (int i = path.size() - 1; i >= 0; i--) {
+			Node node = path.get(i);
+			state = new BoardState(node.board, state, node.nbrMoves, node.heuristic);
+		}
+		return state;
+	}
+
+	/**
+	 * Returns the bit which marks the neighbour in the direction of the given move.
+	 * @param from The board before the move.
+	 * @param to   The board after the move.
+	 * @return A bit which differs for every direction in which the empty tile can move.
+	 */
+	private static int getDirectionBit(Board from, Board to) {
+		int step = to.getBlankIndex() - from.getBlankIndex();
+		if (step == -1) {
+			return 1;
+		} else if (step == 1) {
+			return 2;
+		}
+		return (step < 0) ? 4 : 8;
+	}
+
+	/**
+	 * A state of the search tree.
+	 */
+	private final class Node {
+
+		/**
+		 * Variable storing the board of the state.
+		 */
+		private final Board board;
+
+		/**
+		 * Variable storing the state before the last move; null for the initial board.
+		 */
+		private final Node parent;
+
+		/**
+		 * Variable storing the number of moves made to reach the board.
+		 */
+		private final int nbrMoves;
+
+		/**
+		 * Variable storing the heuristic value of the board.
+		 */
+		private final int heuristic;
+
+		/**
+		 * Variable storing the bit of the move from the parent.
+		 */
+		private final int direction;
+
+		/**
+		 * Variable storing the order in which the state was created.
+		 */
+		private final long id;
+
+		/**
+		 * Variable storing the bits of the neighbours which are in memory.
+		 */
+		private int children;
+
+		/**
+		 * Variable storing the priority: before the expansion, the lower bound of the state;
+		 *  after it, the smallest backed up priority of its forgotten neighbours (NONE when there are none).
+		 */
+		private int priority;
+
+		/**
+		 * Initialises a state.
+		 * @param board     The board of the state.
+		 * @param parent    The state before the last move.
+		 * @param nbrMoves  The number of moves made to reach the board.
+		 * @param heuristic The heuristic value of the board.
+		 * @param direction The bit of the move from the parent.
+		 */
+		private Node(Board board, Node parent, int nbrMoves, int heuristic, int direction) {
+			this.board = board;
+			this.parent = parent;
+			this.nbrMoves = nbrMoves;
+			this.heuristic = heuristic;
+			this.direction = direction;
+			this.id = nbrCreated++;
+		}
+	}
+
+}
@@ -0,0 +1,248 @@
+package gna;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The solution cache keeps the moves of recently solved boards, and evicts the least recently used ones
+ *  when it holds more entries or bytes than allowed.
+ *  A board and its transpose with relabelled tiles (every tile mirrored over the main diagonal and renamed to the tile
+ *  which belongs on the mirrored position) need the same number of moves, with the moves mirrored as well.
+ *  Both are stored under the same canonical board, the smaller of the two, so a cached solution serves both.
+ *  Only solutions with the fewest moves are cached, so a cached solution serves every search algorithm.
+ *  All methods are thread-safe. A board which two threads solve at the same time is solved twice.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class SolutionCache {
+
+	/**
+	 * Variable storing an estimate of the bytes used by one entry apart from its tiles and moves:
+	 *  the map entry, the board and the move sequence objects.
+	 */
+	private static final long ENTRY_OVERHEAD_BYTES = 128;
+
+	/**
+	 * Variable storing the moves per canonical board, from least to most recently used.
+	 */
+	private final LinkedHashMap<Board, MoveSequence> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Variable storing the maximum number of entries.
+	 */
+	private final long maxEntries;
+
+	/**
+	 * Variable storing the maximum estimated number of bytes of all entries.
+	 */
+	private final long maxBytes;
+
+	/**
+	 * Variable storing the estimated number of bytes of all entries.
+	 */
+	private long bytes;
+
+	/**
+	 * Variable storing the number of boards which were found in the cache.
+	 */
+	private long nbrHits;
+
+	/**
+	 * Variable storing the number of boards which were not found in the cache.
+	 */
+	private long nbrMisses;
+
+	/**
+	 * Variable storing the number of evicted entries.
+	 */
+	private long nbrEvictions;
+
+	/**
+	 * Initialises a cache which holds at most the given number of entries.
+	 * @param maxEntries The maximum number of entries.
+	 * @effect | this(maxEntries, Long.MAX_VALUE)
+	 */
+	public SolutionCache(long maxEntries) {
+		this(maxEntries, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Initialises a cache which holds at most the given number of entries and estimated bytes.
+	 * @param maxEntries The maximum number of entries.
+	 * @param maxBytes   The maximum estimated number of bytes of all entries.
+	 * @throws IllegalArgumentException When one of the maximums is not positive.
+	 */
+	public SolutionCache(long maxEntries, long maxBytes) {
+		if (maxEntries <= 0 || maxBytes <= 0) {
+			throw new IllegalArgumentException("The maximum number of entries and bytes need to be positive");
+		}
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Returns the moves which solve the given board, when they are cached.
+	 * @param board The board.
+	 * @return The moves which solve the board, starting from the board; null when they are not cached.
+	 */
+	public MoveSequence get(Board board) {
+		Board transposed = transpose(board);
+		boolean canonical = isCanonical(board, transposed);
+		MoveSequence moves;
+		synchronized (this) {
+			moves = entries.get(canonical ? board : transposed);
+			if (moves == null) {
+				nbrMisses++;
+				return null;
+			}
+			nbrHits++;
+		}
+		return canonical ? moves : moves.transpose(board);
+	}
+
+	/**
+	 * Stores the moves which solve the given board, evicting the least recently used entries when the cache is full.
+	 * @param board The board.
+	 * @param moves The moves which solve the board with the fewest moves, starting from the board.
+	 * @throws IllegalArgumentException When the moves do not start from the board.
+	 */
+	public void put(Board board, MoveSequence moves) {
+		if (!board.equals(moves.getInitialBoard())) {
+			throw new IllegalArgumentException("The moves need to start from the board");
+		}
+		Board transposed = transpose(board);
+		if (!isCanonical(board, transposed)) {
+			board = transposed;
+			moves = moves.transpose(transposed);
+		}
+		long entryBytes = getEstimatedBytes(board, moves);
+		synchronized (this) {
+			MoveSequence previous = entries.put(board, moves);
+			bytes += entryBytes - (previous == null ? 0 : getEstimatedBytes(board, previous));
+			Iterator<Map.Entry<Board, MoveSequence>> iterator = entries.entrySet().iterator();
+			while (entries.size() > maxEntries || (bytes > maxBytes && entries.size() > 1)) {
+				Map.Entry<Board, MoveSequence> eldest = iterator.next();
+				bytes -= getEstimatedBytes(eldest.getKey(), eldest.getValue());
+				iterator.remove();
+				nbrEvictions++;
+			}
+		}
+	}
+
+	/**
+	 * Returns the moves which solve the given board, from the cache or else by solving the board and caching its moves.
+	 *  The moves of a search algorithm which does not find the fewest moves are not cached, but a cached solution
+	 *  is also returned for such an algorithm since it is at least as short.
+	 * @param board     The board.
+	 * @param heuristic The heuristic used when the board needs to be solved.
+	 * @param mode      The search algorithm used when the board needs to be solved.
+	 * @return The moves which solve the board, starting from the board.
+	 * @throws IllegalArgumentException When the board cannot be solved.
+	 */
+	public MoveSequence solve(Board board, HeuristicComparator heuristic, SearchMode mode) {
+		MoveSequence moves = this.get(board);
+		if (moves == null) {
+			moves = new Solver(board, heuristic, mode).getMoves();
+			if (mode.isOptimal()) {
+				this.put(board, moves);
+			}
+		}
+		return moves;
+	}
+
+	/**
+	 * Returns the number of boards which were found in the cache.
+	 * @return the number of hits.
+	 */
+	public synchronized long getNbrHits() {
+		return nbrHits;
+	}
+
+	/**
+	 * Returns the number of boards which were not found in the cache.
+	 * @return the number of misses.
+	 */
+	public synchronized long getNbrMisses() {
+		return nbrMisses;
+	}
+
+	/**
+	 * Returns the number of entries which were evicted.
+	 * @return the number of evictions.
+	 */
+	public synchronized long getNbrEvictions() {
+		return nbrEvictions;
+	}
+
+	/**
+	 * Returns the number of entries.
+	 * @return the number of entries.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the estimated number of bytes of all entries.
+	 * @return the estimated number of bytes.
+	 */
+	public synchronized long getEstimatedBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Removes all entries, the counters are kept.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Returns the transpose of the given board with relabelled tiles.
+	 *  The tile on (row, column) moves to (column, row) and is renamed to the tile which belongs on (column, row)
+	 *  when it belongs on (row, column) itself, so the transpose of the solved board is the solved board.
+	 * @param board The board.
+	 * @return The transposed board.
+	 */
+	static Board transpose(Board board) {
+		int size = board.getSize();
+		int[][] tiles = new int[size][size];
+		for (int row = 0; row < size; row++) {
+			for (int column = 0; column < size; column++) {
+				int value = board.getValue(row * size + column);
+				tiles[column][row] = (value == 0) ? 0 : ((value - 1) % size) * size + (value - 1) / size + 1;
+			}
+		}
+		return new Board(tiles);
+	}
+
+	/**
+	 * Returns whether the given board is the canonical one of itself and its transpose: the one with the smaller key,
+	 *  or with the smaller tiles when the keys are equal.
+	 * @param board      The board.
+	 * @param transposed The transpose of the board.
+	 * @return True when the board is canonical; otherwise false.
+	 */
+	private static boolean isCanonical(Board board, Board transposed) {
+		int result = Long.compare(board.getKey(), transposed.getKey());
+		for (int index = 0; result == 0 && index < board.getSize() * board.getSize(); index++) {
+			result = Integer.compare(board.getValue(index), transposed.getValue(index));
+		}
+		return result <= 0;
+	}
+
+	/**
+	 * Returns an estimate of the number of bytes used by an entry.
+	 * @param board The canonical board of the entry.
+	 * @param moves The moves of the entry.
+	 * @return The estimated number of bytes.
+	 */
+	private static long getEstimatedBytes(Board board, MoveSequence moves) {
+		long tileBytes = (board.getSize() <= 4) ? 0 : (long) board.getSize() * board.getSize() * 2;
+		return ENTRY_OVERHEAD_BYTES + tileBytes + 8L * moves.getNbrPackedLongs();
+	}
+
+}
@@ -0,0 +1,63 @@
+package gna;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event which spans one solve of the Solver, from the check of the initial board to the solution.
+ *  The event is only filled in when it is recorded, so a disabled event costs next to nothing.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+@Name("gna.Solve")
+@Label("Solve")
+@Category("Sliding Puzzle")
+@Description("One board solved by the Solver")
+class SolveEvent extends jdk.jfr.Event {
+
+	/**
+	 * Variable storing the size of the board.
+	 */
+	@Label("Board Size")
+	int boardSize;
+
+	/**
+	 * Variable storing the name of the heuristic.
+	 */
+	@Label("Heuristic")
+	String heuristic;
+
+	/**
+	 * Variable storing the name of the search mode.
+	 */
+	@Label("Search Mode")
+	String mode;
+
+	/**
+	 * Variable storing the number of moves of the solution; -1 when the solve failed.
+	 */
+	@Label("Moves")
+	int moves;
+
+	/**
+	 * Variable storing the number of expanded boards.
+	 */
+	@Label("Expanded Nodes")
+	long expanded;
+
+	/**
+	 * Variable storing the number of generated boards.
+	 */
+	@Label("Generated Nodes")
+	long generated;
+
+	/**
+	 * Variable storing the peak size of the open list.
+	 */
+	@Label("Peak Open Size")
+	long peakOpenSize;
+
+}
@@ -1,100 +1,441 @@
 package gna;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 
 import libpract.PriorityFunc;
 
 public class Solver
 {
 	/**
-	 * Variable storing the solution state of the board.
-	 *  (By looking at the previous state, the previous boards can be calculated.
+	 * Variable storing the moves of the solution.
+	 *  The boards of the solution are not kept, they are replayed from the initial board when they are needed.
 	 */
-	private BoardState boardStateSolution;
+	private MoveSequence moves;
 	
 	/**
-	 * Finds a solution to the initial board.
+	 * Variable storing the heuristic used for the priorities.
+	 */
+	private HeuristicComparator heuristic;
+	
+	/**
+	 * Variable storing the statistics of the work done while solving.
+	 */
+	private final SolverStats stats;
+	
+	/**
+	 * Finds a solution to the initial board with A*.
 	 * @param priority is either PriorityFunc.HAMMING or PriorityFunc.MANHATTAN
 	 * @throws IllegalArgumentException when the function cannot be solved or when the priorityFunction does not equal HAMMING OR MANHATTAN.
+	 * @effect | this(initial, priority, SearchMode.A_STAR)
 	 */
 	public Solver(Board initial, PriorityFunc priority)
 	{
-		if(initial== null || !initial.isSolvable()) {
-			throw new IllegalArgumentException("Cannot solve a board which is null or unsolvable.");
+		this(initial, priority, SearchMode.A_STAR);
+	}
+	
+	/**
+	 * Finds a solution to the initial board with the given search mode.
+	 * @param priority is either PriorityFunc.HAMMING or PriorityFunc.MANHATTAN
+	 * @param mode     The search algorithm used to find the solution.
+	 * @throws IllegalArgumentException when the function cannot be solved or when the priorityFunction does not equal HAMMING OR MANHATTAN.
+	 */
+	public Solver(Board initial, PriorityFunc priority, SearchMode mode)
+	{
+		this(initial, getComparator(priority), mode);
+	}
+	
+	/**
+	 * Finds a solution to the initial board with A* and the given heuristic.
+	 * @param heuristic The heuristic used for the priorities, for example a LinearConflictComparator.
+	 * @throws IllegalArgumentException when the function cannot be solved or when the heuristic equals null.
+	 * @effect | this(initial, heuristic, SearchMode.A_STAR)
+	 */
+	public Solver(Board initial, HeuristicComparator heuristic)
+	{
+		this(initial, heuristic, SearchMode.A_STAR);
+	}
+	
+	/**
+	 * Finds a solution to the initial board with the given heuristic and search mode.
+	 * @param heuristic The heuristic used for the priorities, for example a LinearConflictComparator.
+	 * @param mode      The search algorithm used to find the solution.
+	 * @throws IllegalArgumentException when the function cannot be solved or when the heuristic equals null.
+	 * @effect | this(initial, heuristic, mode, new SolverStats())
+	 */
+	public Solver(Board initial, HeuristicComparator heuristic, SearchMode mode)
+	{
+		this(initial, heuristic, mode, new SolverStats());
+	}
+	
+	/**
+	 * Finds a solution to the initial board with the given heuristic and search mode, filling in the given statistics.
+	 * @param heuristic The heuristic used for the priorities, for example a LinearConflictComparator.
+	 * @param mode      The search algorithm used to find the solution.
+	 * @param stats     The statistics which count the work done while solving, they report their progress while the search runs.
+	 * @throws IllegalArgumentException when the function cannot be solved or when the heuristic or statistics equal null.
+	 */
+	public Solver(Board initial, HeuristicComparator heuristic, SearchMode mode, SolverStats stats)
+	{
+		this(initial, heuristic, mode, 0, null, stats);
+	}
+	
+	/**
+	 * Finds a solution to the initial board with memory-bounded A* (SMA*), which keeps at most the given number of states.
+	 *  getNodeBudget(int, long) converts a number of bytes into a number of states.
+	 * @param heuristic The heuristic used for the priorities, for example a LinearConflictComparator.
+	 * @param maxNodes  The largest number of states which are kept in memory.
+	 * @throws IllegalArgumentException when the function cannot be solved, when the heuristic equals null
+	 *                                  or when the budget cannot hold the initial board and its neighbours.
+	 * @throws IllegalStateException when the budget cannot hold the path to a solution.
+	 * @effect | this(initial, heuristic, maxNodes, new SolverStats())
+	 */
+	public Solver(Board initial, HeuristicComparator heuristic, long maxNodes)
+	{
+		this(initial, heuristic, maxNodes, new SolverStats());
+	}
+	
+	/**
+	 * Finds a solution to the initial board with memory-bounded A* (SMA*), filling in the given statistics.
+	 * @param heuristic The heuristic used for the priorities, for example a LinearConflictComparator.
+	 * @param maxNodes  The largest number of states which are kept in memory.
+	 * @param stats     The statistics which count the work done while solving, they report their progress while the search runs.
+	 * @throws IllegalArgumentException when the function cannot be solved, when the heuristic or statistics equal null
+	 *                                  or when the budget cannot hold the initial board and its neighbours.
+	 * @throws IllegalStateException when the budget cannot hold the path to a solution.
+	 */
+	public Solver(Board initial, HeuristicComparator heuristic, long maxNodes, SolverStats stats)
+	{
+		this(initial, heuristic, SearchMode.SMA_STAR, checkNodeBudget(maxNodes), null, stats);
+	}
+	
+	/**
+	 * Finds a solution to the initial board with A* on the nodes of the given arena (ARENA_A_STAR), filling in the given statistics.
+	 *  The arena is cleared first and keeps its arrays afterwards, so it can be reused for the next board.
+	 * @param heuristic The heuristic used for the priorities, for example a LinearConflictComparator.
+	 * @param arena     The arena which holds the nodes, not used by the same thread for another solve at the same time.
+	 * @param stats     The statistics which count the work done while solving, they report their progress while the search runs.
+	 * @throws IllegalArgumentException when the function cannot be solved or when the heuristic, arena or statistics equal null.
+	 */
+	public Solver(Board initial, HeuristicComparator heuristic, NodeArena arena, SolverStats stats)
+	{
+		this(initial, heuristic, SearchMode.ARENA_A_STAR, 0, checkArena(arena), stats);
+	}
+	
+	/**
+	 * Finds a solution to the initial board with the given heuristic, search mode and budget.
+	 * @param heuristic The heuristic used for the priorities.
+	 * @param mode      The search algorithm used to find the solution.
+	 * @param maxNodes  The largest number of states which SMA* keeps in memory; 0 for a quarter of the maximum heap.
+	 * @param arena     The arena which holds the nodes of ARENA_A_STAR; null for a new arena.
+	 * @param stats     The statistics which count the work done while solving.
+	 * @throws IllegalArgumentException when the function cannot be solved or when the heuristic or statistics equal null.
+	 */
+	private Solver(Board initial, HeuristicComparator heuristic, SearchMode mode, long maxNodes, NodeArena arena, SolverStats stats)
+	{
+		long start = System.nanoTime();
+		SolveEvent event = new SolveEvent();
+		event.begin();
+		try {
+			if(initial== null || !initial.isSolvable()) {
+				throw new IllegalArgumentException("Cannot solve a board which is null or unsolvable.");
+			}
+			if (heuristic == null) {
+				throw new IllegalArgumentException("Priority function not supported");
+			}
+			if (stats == null) {
+				throw new IllegalArgumentException("The statistics cannot be null");
+			}
+			this.stats = stats;
+			this.heuristic = heuristic;
+			stats.setCheckNanos(System.nanoTime() - start);
+			stats.startSearch();
+			this.solve(initial, heuristic, mode, maxNodes, arena);
+			stats.endSearch();
+		} finally {
+			commitEvent(event, initial, heuristic, mode, moves, stats);
 		}
+	}
+	
+	/**
+	 * Commits the Flight Recorder event of a solve, when it is recorded.
+	 * @param event     The event, which began when the solve started.
+	 * @param initial   The initial board; null when it was not given.
+	 * @param heuristic The heuristic; null when it was not given.
+	 * @param mode      The search algorithm.
+	 * @param moves     The moves of the solution; null when the solve failed.
+	 * @param stats     The statistics of the solve; null when they were not given.
+	 */
+	private static void commitEvent(SolveEvent event, Board initial, HeuristicComparator heuristic, SearchMode mode, MoveSequence moves,
+			SolverStats stats) {
+		if (!event.shouldCommit()) {
+			return;
+		}
+		event.boardSize = (initial == null) ? 0 : initial.getSize();
+		event.heuristic = (heuristic == null) ? null : heuristic.getClass().getSimpleName();
+		event.mode = mode.name();
+		event.moves = (moves == null) ? -1 : moves.size();
+		if (stats != null) {
+			event.expanded = stats.getNbrExpandedNodes();
+			event.generated = stats.getNbrGeneratedNodes();
+			event.peakOpenSize = stats.getPeakOpenSize();
+		}
+		event.commit();
+	}
+	
+	/**
+	 * Checks the given budget of SMA*.
+	 * @param maxNodes The largest number of states which are kept in memory.
+	 * @return The budget.
+	 * @throws IllegalArgumentException when the budget cannot hold the initial board and its neighbours.
+	 */
+	private static long checkNodeBudget(long maxNodes) {
+		if (maxNodes < SmaStarSearch.MIN_NODES) {
+			throw new IllegalArgumentException("The budget needs room for at least " + SmaStarSearch.MIN_NODES + " states");
+		}
+		return maxNodes;
+	}
+	
+	/**
+	 * Checks the given arena.
+	 * @param arena The arena which holds the nodes.
+	 * @return The arena.
+	 * @throws IllegalArgumentException when the arena equals null.
+	 */
+	private static NodeArena checkArena(NodeArena arena) {
+		if (arena == null) {
+			throw new IllegalArgumentException("The arena cannot be null");
+		}
+		return arena;
+	}
+	
+	/**
+	 * Solves the initial board on the given executor, without blocking the calling thread.
+	 *  The search is stopped when the token is cancelled, when its deadline passes or when the future is cancelled;
+	 *  the frontier of a stopped search is dropped immediately.
+	 * @param initial   The initial board.
+	 * @param heuristic The heuristic used for the priorities.
+	 * @param mode      The search algorithm used to find the solution.
+	 * @param token     The token which stops the search, it may have a deadline.
+	 * @param executor  The executor on which the board is solved.
+	 * @return A future of the solver. It completes exceptionally with a TimeoutException when the deadline passes,
+	 *         it is cancelled when the token is cancelled, and it completes exceptionally with the reason
+	 *         why the board cannot be solved otherwise.
+	 * @throws IllegalArgumentException when the token or executor equals null.
+	 * @throws java.util.concurrent.RejectedExecutionException when the executor does not accept the solve.
+	 */
+	public static CompletableFuture<Solver> solveAsync(final Board initial, final HeuristicComparator heuristic, final SearchMode mode,
+			final CancellationToken token, Executor executor) {
+		if (token == null || executor == null) {
+			throw new IllegalArgumentException("The token and executor cannot be null");
+		}
+		final CompletableFuture<Solver> future = new CompletableFuture<>();
+		future.whenComplete(new BiConsumer<Solver, Throwable>() {
+			@Override
+			public void accept(Solver solver, Throwable failure) {
+				if (future.isCancelled()) {
+					token.cancel();
+				}
+			}
+		});
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				if (future.isDone()) {
+					return;
+				}
+				try {
+					future.complete(new Solver(initial, heuristic, mode, new SolverStats(token)));
+				} catch (CancellationException e) {
+					if (token.isDeadlinePassed()) {
+						future.completeExceptionally(new TimeoutException(e.getMessage()));
+					} else {
+						future.cancel(false);
+					}
+				} catch (RuntimeException | Error e) {
+					future.completeExceptionally(e);
+				}
+			}
+		});
+		return future;
+	}
+	
+	/**
+	 * Returns the number of states of memory-bounded A* which fit in the given number of bytes.
+	 * @param size     The size of the boards.
+	 * @param maxBytes The number of bytes which the states may use.
+	 * @return The estimated number of states which fit in the bytes, at least the smallest budget.
+	 */
+	public static long getNodeBudget(int size, long maxBytes) {
+		return SmaStarSearch.getNodeBudget(size, maxBytes);
+	}
+	
+	/**
+	 * Returns the comparator of the given priority function.
+	 * @param priority is either PriorityFunc.HAMMING or PriorityFunc.MANHATTAN
+	 * @return The comparator which uses the given priority function.
+	 * @throws IllegalArgumentException when the priorityFunction does not equal HAMMING OR MANHATTAN.
+	 */
+	public static HeuristicComparator getComparator(PriorityFunc priority) {
 		// Use the given priority function (either PriorityFunc.HAMMING
 		// or PriorityFunc.MANHATTAN) to solve the puzzle.
 		if (priority == PriorityFunc.HAMMING) {
-			this.solve(initial, new HammingComparator());
+			return new HammingComparator();
 		} else if (priority == PriorityFunc.MANHATTAN) {
-			this.solve(initial, new ManhattanComparator());
+			return new ManhattanComparator();
+		}
+		throw new IllegalArgumentException("Priority function not supported");
+	}
+	
+	/**
+	 * Solves the board with the given search mode.
+	 * @param initial    The initial board.
+	 * @param comparator The heuristic used for the priorities.
+	 * @param mode       The search algorithm used to find the solution.
+	 * @param maxNodes   The largest number of states which SMA* keeps in memory; 0 for a quarter of the maximum heap.
+	 * @param arena      The arena which holds the nodes of ARENA_A_STAR; null for a new arena.
+	 * @throws IllegalArgumentException when the search mode is not supported.
+	 */
+	private void solve(Board initial, HeuristicComparator comparator, SearchMode mode, long maxNodes, NodeArena arena) {
+		if (mode == SearchMode.A_STAR) {
+			this.solve(initial, comparator, new PriorityQueue<>(comparator));
+		} else if (mode == SearchMode.ARENA_A_STAR && initial.getSize() <= NodeArena.MAX_SIZE) {
+			this.moves = new ArenaSearch(initial, comparator, (arena != null) ? arena : new NodeArena(), stats).solve();
+		} else if (mode == SearchMode.BUCKET_A_STAR || mode == SearchMode.ARENA_A_STAR) {
+			this.solve(initial, comparator, new BucketQueue());
+		} else if (mode == SearchMode.IDA_STAR) {
+			this.setBoardStateSolution(new IdaStarSearch(initial, comparator, stats).solve());
+		} else if (mode == SearchMode.BIDIRECTIONAL) {
+			this.setBoardStateSolution(new BidirectionalSearch(initial, comparator, stats).solve());
+		} else if (mode == SearchMode.HDA_STAR) {
+			this.setBoardStateSolution(new HdaStarSearch(initial, comparator, Runtime.getRuntime().availableProcessors(), stats).solve());
+		} else if (mode == SearchMode.SMA_STAR) {
+			if (maxNodes == 0) {
+				maxNodes = getNodeBudget(initial.getSize(), Runtime.getRuntime().maxMemory() / 4);
+			}
+			this.setBoardStateSolution(new SmaStarSearch(initial, comparator, maxNodes, stats).solve());
+		} else if (mode == SearchMode.PLACEMENT || mode == SearchMode.SHORTENED_PLACEMENT) {
+			this.moves = new PlacementSearch(initial, mode == SearchMode.SHORTENED_PLACEMENT, stats).solve();
 		} else {
-			throw new IllegalArgumentException("Priority function not supported");
+			throw new IllegalArgumentException("Search mode not supported");
 		}
 	}
 	
 	/**
-	 * Solves the actual board by making use of the comparator.
+	 * Solves the actual board by making use of the comparator and the given priority queue.
+	 *  A transposition table stores the fewest number of moves with which every board was reached.
+	 *  A neighbour is only added to the priority queue when it is reached with fewer moves than before,
+	 *  and a polled state is skipped when its board was queued again with fewer moves.
 	 * @param initial    The initial board.
-	 * @param comparator The comparator used in the priority queue.
+	 * @param comparator The comparator which computes the heuristic values.
+	 * @param prioQueue  An empty queue which returns the states in the order of the comparator.
 	 * @effect The solution is computed and the final solution state is stored in the boardStateSolution.
 	 */
-	private void solve(Board initial, Comparator<BoardState> comparator) {
-		PriorityQueue<BoardState> prioQueue = new PriorityQueue<>(comparator);
-		prioQueue.add(new BoardState(initial, null, 0));
+	private void solve(Board initial, HeuristicComparator comparator, Queue<BoardState> prioQueue) {
+		TranspositionTable fewestMoves = new TranspositionTable();
+		prioQueue.add(new BoardState(initial, null, 0, comparator.heuristic(initial)));
+		stats.heuristicEvaluated();
+		fewestMoves.put(initial.getKey(), 0);
 		BoardState bestState = null;
 		while(true) {
 			 bestState = prioQueue.poll();
+			 if(bestState.getNbrMoves() > fewestMoves.get(bestState.getCurrentBoard().getKey())) {
+				 stats.duplicatePruned();
+				 continue;
+			 }
 			 if(bestState.isCurrentSolved()) {
 				 break;
 			 }
+			 stats.expanded();
+			 stats.updateBound(bestState.getPriority());
+			 int nbrMoves = bestState.getNbrMoves()+1;
 			 for (Board board : bestState.getCurrentNeighbors()) {
-				if(bestState.getPreviousState() == null || !bestState.getPreviousState().getCurrentBoard().equals(board)) {
-					prioQueue.add(new BoardState(board, bestState, bestState.getNbrMoves()+1));
+				stats.generated();
+				if(fewestMoves.putIfSmaller(board.getKey(), nbrMoves)) {
+					prioQueue.add(new BoardState(board, bestState, nbrMoves, comparator.heuristic(board, bestState)));
+					stats.heuristicEvaluated();
+				} else {
+					stats.duplicatePruned();
 				}
 			}
+			stats.updatePeakOpenSize(prioQueue.size());
 		}
 		this.setBoardStateSolution(bestState);
 	}
 	
 	/**
-	 * Returns the board state solution variable.
-	 * @return the board state solution variable.
+	 * Returns the solution state, of which the previous states lead back to the initial board.
+	 *  The states are rebuilt from the moves of the solution on every call.
+	 * @return the solution state.
 	 */
 	public BoardState getBoardStateSolution() {
-		return boardStateSolution;
+		BoardState state = null;
+		for (Board board : this.getMoves()) {
+			state = (state == null) ? new BoardState(board, null, 0, heuristic.heuristic(board))
+					: new BoardState(board, state, state.getNbrMoves() + 1, heuristic.heuristic(board, state));
+		}
+		return state;
 	}
 
 	/**
-	 * Sets the board state solution variable.
-	 * @param boardStateSolution The BoardState to which the board state solution variable will be set.
-	 * @post The boardStateSolution equals the parameter.
-	 *       | new.getBoardStateSolution() == boardStateSolution
+	 * Stores the moves which lead to the board of the given solution state.
+	 *  The states themselves are not kept, so the boards of the search can be garbage collected.
+	 * @param boardStateSolution The solution state, of which the previous states lead back to the initial board.
+	 * @post The moves lead to the board of the solution state.
+	 *       | new.getMoves().getLastBoard().equals(boardStateSolution.getCurrentBoard())
 	 */
 	private void setBoardStateSolution(BoardState boardStateSolution) {
-		this.boardStateSolution = boardStateSolution;
+		this.moves = new MoveSequence(boardStateSolution);
+	}
+
+	/**
+	 * Returns the moves of the solution.
+	 * @return the moves of the solution, of which the iterator replays the boards from the initial board.
+	 */
+	public MoveSequence getMoves() {
+		return moves;
 	}
 
 	/**
 	 * Returns a List of board positions as the solution. It should contain the initial
 	 * Board as well as the solution (if these are equal only one Board is returned).
+	 *  The list is a new copy of the boards replayed from the moves of the solution;
+	 *  iterating over getMoves() gives the same boards without keeping them all.
 	 */
 	public List<Board> solution()
 	{
-		ArrayList<Board> solution = new ArrayList<>();
-		BoardState state = this.getBoardStateSolution();
-		while(state != null) {
-			solution.add(0,state.getCurrentBoard());
-			state = state.getPreviousState();
+		List<Board> solution = new ArrayList<>(this.getMoves().size() + 1);
+		for (Board board : this.getMoves()) {
+			solution.add(board);
 		}
 		return solution;
 	}
 	
 	public int getMinimalNumberOfMoves() {
-		return this.getBoardStateSolution().getNbrMoves();
+		return this.getMoves().size();
+	}
+	
+	/**
+	 * Returns the number of boards of which the neighbours were generated while solving.
+	 * @return the number of expanded boards.
+	 */
+	public long getNbrExpandedNodes() {
+		return stats.getNbrExpandedNodes();
+	}
+	
+	/**
+	 * Returns the statistics of the work done while solving.
+	 * @return the statistics of the work done while solving.
+	 */
+	public SolverStats getStats() {
+		return stats;
 	}
 }
 
@@ -0,0 +1,368 @@
+package gna;
+
+import java.util.function.Consumer;
+import jdk.jfr.EventType;
+
+/**
+ * The solver statistics count the work done while solving one board.
+ *  They are filled in by the search on the thread which solves the board, with plain counters,
+ *  so they can stay enabled without slowing down the search.
+ *  When a progress consumer is given, it receives the statistics at most once per progress interval while the search runs.
+ *  A runtime exception thrown by the consumer ends the search, and is thrown by the solver.
+ *  When a cancellation token is given, the search is stopped as soon as the token is cancelled or its deadline passes.
+ *  While a Flight Recorder records FrontierEvents, a snapshot of the frontier is committed at most once per SNAPSHOT_INTERVAL_NANOS.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class SolverStats {
+
+	/**
+	 * Variable storing the default time between two progress reports, one second in nanoseconds.
+	 */
+	public static final long DEFAULT_PROGRESS_INTERVAL_NANOS = 1000000000L;
+
+	/**
+	 * Variable storing the mask of the number of expanded boards after which the time is checked for a progress report
+	 *  and the cancellation token is checked. Reading the clock on every expansion would cost more than the expansion itself.
+	 */
+	private static final long PROGRESS_CHECK_MASK = 1023;
+
+	/**
+	 * Variable storing the smallest time between two frontier snapshots, 100 milliseconds in nanoseconds.
+	 */
+	static final long SNAPSHOT_INTERVAL_NANOS = 100000000L;
+
+	/**
+	 * Variable storing the type of the FrontierEvents, of which isEnabled() tells whether a recording wants the snapshots.
+	 */
+	private static final EventType FRONTIER_EVENT_TYPE = EventType.getEventType(FrontierEvent.class);
+
+	/**
+	 * Variable storing the number of boards of which the neighbours were generated.
+	 */
+	private long nbrExpandedNodes;
+
+	/**
+	 * Variable storing the number of neighbours which were generated.
+	 */
+	private long nbrGeneratedNodes;
+
+	/**
+	 * Variable storing the number of states which were not expanded because their board was reached with fewer moves.
+	 */
+	private long nbrDuplicatesPruned;
+
+	/**
+	 * Variable storing the number of computed heuristic values.
+	 */
+	private long nbrHeuristicEvaluations;
+
+	/**
+	 * Variable storing the largest number of states which were waiting to be expanded at the same time.
+	 */
+	private long peakOpenSize;
+
+	/**
+	 * Variable storing the number of states which were waiting to be expanded at the last update.
+	 */
+	private long openSize;
+
+	/**
+	 * Variable storing the priority of the last expanded state or the bound of the iteration; -1 when it is not reported.
+	 */
+	private int bound = -1;
+
+	/**
+	 * Variable storing the time spent checking the initial board, in nanoseconds.
+	 */
+	private long checkNanos;
+
+	/**
+	 * Variable storing the time spent searching, in nanoseconds.
+	 */
+	private long searchNanos;
+
+	/**
+	 * Variable storing the consumer which receives the progress reports; null when there are none.
+	 */
+	private final Consumer<SolverStats> progress;
+
+	/**
+	 * Variable storing the time between two progress reports in nanoseconds.
+	 */
+	private final long progressIntervalNanos;
+
+	/**
+	 * Variable storing the token which stops the search; null when the search cannot be stopped.
+	 */
+	private final CancellationToken token;
+
+	/**
+	 * Variable storing the value of System.nanoTime() at which the search started.
+	 */
+	private long searchStart;
+
+	/**
+	 * Variable storing the value of System.nanoTime() at which the next progress report is due.
+	 */
+	private long nextProgress;
+
+	/**
+	 * Variable storing the value of System.nanoTime() of the last frontier snapshot.
+	 */
+	private long lastSnapshot;
+
+	/**
+	 * Variable storing the number of expanded boards at the last frontier snapshot.
+	 */
+	private long lastSnapshotExpanded;
+
+	/**
+	 * Initialises statistics without progress reports.
+	 * @effect | this(null, DEFAULT_PROGRESS_INTERVAL_NANOS)
+	 */
+	public SolverStats() {
+		this(null, DEFAULT_PROGRESS_INTERVAL_NANOS);
+	}
+
+	/**
+	 * Initialises statistics of a search which is stopped by the given token.
+	 * @param token The token which stops the search; null when the search cannot be stopped.
+	 * @effect | this(null, DEFAULT_PROGRESS_INTERVAL_NANOS, token)
+	 */
+	public SolverStats(CancellationToken token) {
+		this(null, DEFAULT_PROGRESS_INTERVAL_NANOS, token);
+	}
+
+	/**
+	 * Initialises statistics which report their progress to the given consumer.
+	 * @param progress              The consumer which receives the progress reports; null when there are none.
+	 * @param progressIntervalNanos The time between two progress reports in nanoseconds.
+	 * @throws IllegalArgumentException When the interval is not positive.
+	 * @effect | this(progress, progressIntervalNanos, null)
+	 */
+	public SolverStats(Consumer<SolverStats> progress, long progressIntervalNanos) {
+		this(progress, progressIntervalNanos, null);
+	}
+
+	/**
+	 * Initialises statistics which report their progress to the given consumer, of a search which is stopped by the given token.
+	 * @param progress              The consumer which receives the progress reports; null when there are none.
+	 * @param progressIntervalNanos The time between two progress reports in nanoseconds.
+	 * @param token                 The token which stops the search; null when the search cannot be stopped.
+	 * @throws IllegalArgumentException When the interval is not positive.
+	 */
+	public SolverStats(Consumer<SolverStats> progress, long progressIntervalNanos, CancellationToken token) {
+		if (progressIntervalNanos <= 0) {
+			throw new IllegalArgumentException("The progress interval needs to be positive");
+		}
+		this.progress = progress;
+		this.progressIntervalNanos = progressIntervalNanos;
+		this.token = token;
+	}
+
+	/**
+	 * Returns the token which stops the search.
+	 * @return the cancellation token; null when the search cannot be stopped.
+	 */
+	public CancellationToken getCancellationToken() {
+		return token;
+	}
+
+	/**
+	 * Returns the number of boards of which the neighbours were generated.
+	 * @return the number of expanded boards.
+	 */
+	public long getNbrExpandedNodes() {
+		return nbrExpandedNodes;
+	}
+
+	/**
+	 * Returns the number of neighbours which were generated.
+	 * @return the number of generated boards.
+	 */
+	public long getNbrGeneratedNodes() {
+		return nbrGeneratedNodes;
+	}
+
+	/**
+	 * Returns the number of states which were not expanded because their board was reached with fewer moves
+	 *  (for IDA*: the moves which would undo the previous move).
+	 * @return the number of pruned duplicates.
+	 */
+	public long getNbrDuplicatesPruned() {
+		return nbrDuplicatesPruned;
+	}
+
+	/**
+	 * Returns the number of computed heuristic values.
+	 * @return the number of heuristic evaluations.
+	 */
+	public long getNbrHeuristicEvaluations() {
+		return nbrHeuristicEvaluations;
+	}
+
+	/**
+	 * Returns the largest number of states which were waiting to be expanded at the same time
+	 *  (for IDA*: the longest path; for HDA*: the sum over the workers).
+	 * @return the peak size of the open list.
+	 */
+	public long getPeakOpenSize() {
+		return peakOpenSize;
+	}
+
+	/**
+	 * Returns the time spent checking whether the initial board can be solved.
+	 * @return the time in nanoseconds.
+	 */
+	public long getCheckNanos() {
+		return checkNanos;
+	}
+
+	/**
+	 * Returns the time spent searching the solution; while the search runs, the time spent so far.
+	 * @return the time in nanoseconds.
+	 */
+	public long getSearchNanos() {
+		return (searchNanos == 0 && searchStart != 0) ? System.nanoTime() - searchStart : searchNanos;
+	}
+
+	/**
+	 * Returns the total time spent on the board.
+	 * @return the time in nanoseconds.
+	 *         | this.getCheckNanos() + this.getSearchNanos()
+	 */
+	public long getTotalNanos() {
+		return this.getCheckNanos() + this.getSearchNanos();
+	}
+
+	/**
+	 * Stores the time spent checking the initial board.
+	 * @param checkNanos The time in nanoseconds.
+	 */
+	void setCheckNanos(long checkNanos) {
+		this.checkNanos = checkNanos;
+	}
+
+	/**
+	 * Marks the start of the search.
+	 * @throws java.util.concurrent.CancellationException When the token was already cancelled or its deadline passed.
+	 */
+	void startSearch() {
+		if (token != null) {
+			token.check();
+		}
+		searchStart = System.nanoTime();
+		nextProgress = searchStart + progressIntervalNanos;
+		lastSnapshot = searchStart;
+	}
+
+	/**
+	 * Marks the end of the search.
+	 */
+	void endSearch() {
+		searchNanos = Math.max(1, System.nanoTime() - searchStart);
+	}
+
+	/**
+	 * Counts an expanded board, checks the cancellation token and reports the progress when it is due.
+	 * @throws java.util.concurrent.CancellationException When the token was cancelled or its deadline passed.
+	 */
+	void expanded() {
+		nbrExpandedNodes++;
+		if ((nbrExpandedNodes & PROGRESS_CHECK_MASK) == 0 && (progress != null || token != null || FRONTIER_EVENT_TYPE.isEnabled())) {
+			this.checkpoint();
+		}
+	}
+
+	/**
+	 * Checks the cancellation token, reports the progress and commits a frontier snapshot when they are due.
+	 * @throws java.util.concurrent.CancellationException When the token was cancelled or its deadline passed.
+	 */
+	private void checkpoint() {
+		if (token != null) {
+			token.check();
+		}
+		long now = System.nanoTime();
+		if (progress != null && now - nextProgress >= 0) {
+			nextProgress = now + progressIntervalNanos;
+			progress.accept(this);
+		}
+		if (FRONTIER_EVENT_TYPE.isEnabled() && now - lastSnapshot >= SNAPSHOT_INTERVAL_NANOS) {
+			FrontierEvent event = new FrontierEvent();
+			event.openSize = openSize;
+			event.peakOpenSize = peakOpenSize;
+			event.bound = bound;
+			event.expanded = nbrExpandedNodes;
+			event.expansionsPerSecond = (nbrExpandedNodes - lastSnapshotExpanded) * 1000000000L / (now - lastSnapshot);
+			event.commit();
+			lastSnapshot = now;
+			lastSnapshotExpanded = nbrExpandedNodes;
+		}
+	}
+
+	/**
+	 * Counts a generated neighbour.
+	 */
+	void generated() {
+		nbrGeneratedNodes++;
+	}
+
+	/**
+	 * Counts a pruned duplicate.
+	 */
+	void duplicatePruned() {
+		nbrDuplicatesPruned++;
+	}
+
+	/**
+	 * Counts a computed heuristic value.
+	 */
+	void heuristicEvaluated() {
+		nbrHeuristicEvaluations++;
+	}
+
+	/**
+	 * Stores the priority of the state which is expanded, or the bound of the current iteration.
+	 * @param bound The priority (moves + heuristic value).
+	 */
+	void updateBound(int bound) {
+		this.bound = bound;
+	}
+
+	/**
+	 * Updates the current and peak size of the open list with the given current size.
+	 * @param openSize The number of states which are waiting to be expanded.
+	 */
+	void updatePeakOpenSize(long openSize) {
+		this.openSize = openSize;
+		if (openSize > peakOpenSize) {
+			peakOpenSize = openSize;
+		}
+	}
+
+	/**
+	 * Adds the counters of the given statistics to these statistics, the times are not added.
+	 * @param other The statistics of another part of the same search.
+	 */
+	void add(SolverStats other) {
+		nbrExpandedNodes += other.nbrExpandedNodes;
+		nbrGeneratedNodes += other.nbrGeneratedNodes;
+		nbrDuplicatesPruned += other.nbrDuplicatesPruned;
+		nbrHeuristicEvaluations += other.nbrHeuristicEvaluations;
+		peakOpenSize += other.peakOpenSize;
+	}
+
+	/**
+	 * Returns a string representation of the statistics.
+	 * @return a string representation of the statistics.
+	 */
+	@Override
+	public String toString() {
+		return "expanded=" + nbrExpandedNodes + ", generated=" + nbrGeneratedNodes + ", duplicatesPruned=" + nbrDuplicatesPruned
+				+ ", heuristicEvaluations=" + nbrHeuristicEvaluations + ", peakOpenSize=" + peakOpenSize
+				+ ", checkNanos=" + checkNanos + ", searchNanos=" + this.getSearchNanos();
+	}
+
+}
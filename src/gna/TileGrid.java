@@ -0,0 +1,44 @@
+package gna;
+
+/**
+ * A tile grid gives read access to the tiles of a square sliding puzzle.
+ *  It is implemented by the immutable Board and by the MutableBoard used for in-place searches,
+ *  so heuristics can be computed on both.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public interface TileGrid {
+
+	/**
+	 * Returns the size (number of rows and columns) of the grid.
+	 * @return the size of the grid.
+	 */
+	int getSize();
+
+	/**
+	 * Returns the value on the given index.
+	 * @param index The index (row * size + column) of the requested value.
+	 * @return The value on the given index, 0 for the empty tile.
+	 */
+	int getValue(int index);
+
+	/**
+	 * Returns the index (row * size + column) of the empty tile.
+	 * @return the index of the empty tile.
+	 */
+	int getBlankIndex();
+
+	/**
+	 * Returns the Hamming distance of the grid.
+	 * @return The number of tiles out of place.
+	 */
+	int hamming();
+
+	/**
+	 * Returns the sum of Manhattan distances between the tiles and their goal positions.
+	 * @return The sum of the Manhattan distances.
+	 */
+	int manhattan();
+
+}
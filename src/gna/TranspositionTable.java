@@ -0,0 +1,223 @@
+package gna;
+
+import java.util.Arrays;
+
+/**
+ * The transposition table maps 64-bit board keys on an int value (the fewest number of moves with which the board was reached).
+ *  It is an open-addressing hash table with linear probing on primitive arrays, so no Board or Long objects are kept alive.
+ *  The key 0 is stored separately because 0 marks an empty slot in the key array.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class TranspositionTable {
+
+	/**
+	 * Variable storing the value returned for keys which are not in the table.
+	 */
+	public static final int ABSENT = -1;
+
+	/**
+	 * Variable storing the initial capacity used by the default constructor.
+	 */
+	public static final int DEFAULT_INITIAL_CAPACITY = 1 << 12;
+
+	/**
+	 * Variable storing the load factor used by the default constructor.
+	 */
+	public static final float DEFAULT_LOAD_FACTOR = 0.5f;
+
+	/**
+	 * Variable storing the keys, an empty slot contains 0.
+	 */
+	private long[] keys;
+
+	/**
+	 * Variable storing the values, on the same index as their key.
+	 */
+	private int[] values;
+
+	/**
+	 * Variable storing the number of keys in the table.
+	 */
+	private int size;
+
+	/**
+	 * Variable storing the maximum fraction of used slots before the table grows.
+	 */
+	private final float loadFactor;
+
+	/**
+	 * Variable storing the number of keys at which the table grows.
+	 */
+	private int threshold;
+
+	/**
+	 * Variable storing whether the key 0 is in the table.
+	 */
+	private boolean containsZeroKey;
+
+	/**
+	 * Variable storing the value of the key 0.
+	 */
+	private int zeroKeyValue;
+
+	/**
+	 * Initialises an empty table with the default initial capacity and load factor.
+	 * @effect | this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR)
+	 */
+	public TranspositionTable() {
+		this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+	}
+
+	/**
+	 * Initialises an empty table.
+	 * @param initialCapacity The number of keys the table can contain before it grows.
+	 * @param loadFactor      The maximum fraction of used slots.
+	 * @throws IllegalArgumentException When the initial capacity is negative or the load factor is not in ]0,1[.
+	 *                                  | initialCapacity < 0 || !(loadFactor > 0 && loadFactor < 1)
+	 */
+	public TranspositionTable(int initialCapacity, float loadFactor) {
+		if (initialCapacity < 0 || !(loadFactor > 0 && loadFactor < 1)) {
+			throw new IllegalArgumentException("The capacity cannot be negative and the load factor needs to be between 0 and 1");
+		}
+		this.loadFactor = loadFactor;
+		int slots = Integer.highestOneBit(Math.max(2, (int) Math.ceil(initialCapacity / loadFactor)) - 1) << 1;
+		this.allocate(slots);
+	}
+
+	/**
+	 * Returns the value stored for the given key.
+	 * @param key The key of which the value is requested.
+	 * @return The value of the key if the key is in the table; otherwise ABSENT.
+	 */
+	public int get(long key) {
+		if (key == 0) {
+			return containsZeroKey ? zeroKeyValue : ABSENT;
+		}
+		int mask = keys.length - 1;
+		for (int slot = this.slot(key); ; slot = (slot + 1) & mask) {
+			long current = keys[slot];
+			if (current == key) {
+				return values[slot];
+			}
+			if (current == 0) {
+				return ABSENT;
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the given key is in the table.
+	 * @param key The key which is checked.
+	 * @return True when the key is in the table; otherwise false.
+	 */
+	public boolean contains(long key) {
+		return this.get(key) != ABSENT;
+	}
+
+	/**
+	 * Stores the given value for the given key, replacing the previous value of the key.
+	 * @param key   The key of which the value is stored.
+	 * @param value The value which is stored.
+	 * @post The value of the key equals the given value.
+	 *       | new.get(key) == value
+	 */
+	public void put(long key, int value) {
+		if (key == 0) {
+			if (!containsZeroKey) {
+				containsZeroKey = true;
+				size++;
+			}
+			zeroKeyValue = value;
+			return;
+		}
+		int mask = keys.length - 1;
+		int slot = this.slot(key);
+		while (keys[slot] != 0 && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		values[slot] = value;
+		if (keys[slot] == 0) {
+			keys[slot] = key;
+			if (++size > threshold) {
+				this.grow();
+			}
+		}
+	}
+
+	/**
+	 * Stores the given value for the given key when the key is not in the table yet or when its value is larger.
+	 * @param key   The key of which the value is stored.
+	 * @param value The value which is stored.
+	 * @return True when the value was stored; otherwise false.
+	 */
+	public boolean putIfSmaller(long key, int value) {
+		int current = this.get(key);
+		if (current != ABSENT && current <= value) {
+			return false;
+		}
+		this.put(key, value);
+		return true;
+	}
+
+	/**
+	 * Returns the number of keys in the table.
+	 * @return the number of keys in the table.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all the keys, the table keeps its capacity.
+	 * @post | new.size() == 0
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0L);
+		containsZeroKey = false;
+		size = 0;
+	}
+
+	/**
+	 * Returns the slot of which the probing for the given key starts.
+	 *  The key is mixed first, packed boards differ only in a few bits.
+	 * @param key The key of which the slot is computed.
+	 * @return The first slot of the key.
+	 */
+	private int slot(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+	}
+
+	/**
+	 * Doubles the number of slots and reinserts all the keys.
+	 */
+	private void grow() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		this.allocate(oldKeys.length << 1);
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				int slot = this.slot(oldKeys[i]);
+				while (keys[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Allocates empty arrays with the given number of slots.
+	 * @param slots The number of slots, a power of 2.
+	 */
+	private void allocate(int slots) {
+		this.keys = new long[slots];
+		this.values = new int[slots];
+		this.threshold = (int) Math.min(slots - 1L, (long) (slots * loadFactor));
+	}
+
+}
@@ -1,7 +1,31 @@
 package gna;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import libpract.PriorityFunc;
 
 import static org.junit.Assert.*;
@@ -40,6 +64,676 @@ public class UnitTests {
                        puzzel26 = "boards/puzzle26.txt",
                        unsolvable= "boards/puzzle3x3-impossible.txt";
  
+  @Test
+  public void equalTilesGiveEqualBoards() {
+	  Board copy = new Board(distanceTiles2);
+	  assertEquals(distanceBoard2, copy);
+	  assertEquals(distanceBoard2.hashCode(), copy.hashCode());
+	  assertFalse(distanceBoard2.equals(distanceBoard1));
+  }
+  
+  @Test
+  public void neighborsOfLargeBoardKeepTheirTiles() {
+	  int[][] tiles = new int[5][5];
+	  for (int i = 0; i < 25; i++)
+		  tiles[i / 5][i % 5] = (i + 1) % 25;
+	  Board solved = new Board(tiles);
+	  assertTrue(solved.isSolved());
+	  Collection<Board> neighbors = solved.neighbors();
+	  assertEquals(2, neighbors.size());
+	  for (Board neighbor : neighbors) {
+		  assertEquals(1, neighbor.manhattan());
+		  assertEquals(1, neighbor.hamming());
+		  assertTrue(neighbor.neighbors().contains(solved));
+	  }
+  }
+  
+  @Test
+  public void incrementalDistancesEqualRecomputedDistances() {
+	  Board board = distanceBoard2;
+	  for (int step = 0; step < 50; step++) {
+		  for (Board neighbor : board.neighbors()) {
+			  Board recomputed = new Board(neighbor.getTiles());
+			  assertEquals(recomputed.manhattan(), neighbor.manhattan());
+			  assertEquals(recomputed.hamming(), neighbor.hamming());
+			  board = neighbor;
+		  }
+	  }
+  }
+  
+  @Test
+  public void transpositionTableKeepsValuesWhileGrowing() {
+	  TranspositionTable table = new TranspositionTable(2, 0.75f);
+	  for (long key = 0; key < 10000; key++) {
+		  table.put(key * 31, (int) key);
+	  }
+	  assertEquals(10000, table.size());
+	  for (long key = 0; key < 10000; key++) {
+		  assertEquals(key, table.get(key * 31));
+	  }
+	  assertEquals(TranspositionTable.ABSENT, table.get(7));
+	  assertFalse(table.putIfSmaller(31, 5));
+	  assertTrue(table.putIfSmaller(62, 1));
+	  assertEquals(1, table.get(62));
+  }
+  
+  @Test
+  public void idaStarFindsTheSameNumberOfMovesAsAStar() {
+	  for (String path : new String[] {puzzel04, puzzel20, puzzel22, "boards/puzzle30.txt"}) {
+		  Board b = BoardReader.getBoardWithData(path);
+		  Solver aStar = new Solver(b, PriorityFunc.MANHATTAN);
+		  Solver idaStar = new Solver(b, PriorityFunc.MANHATTAN, SearchMode.IDA_STAR);
+		  assertEquals(aStar.getMinimalNumberOfMoves(), idaStar.getMinimalNumberOfMoves());
+		  List<Board> solution = idaStar.solution();
+		  assertEquals(b, solution.get(0));
+		  assertTrue(solution.get(solution.size() - 1).isSolved());
+		  for (int i = 1; i < solution.size(); i++) {
+			  assertTrue(solution.get(i - 1).neighbors().contains(solution.get(i)));
+		  }
+	  }
+  }
+  
+  @Test
+  public void linearConflictsAreAddedToManhattan() {
+	  Board conflict = new Board(new int[][] {{2,1,3},{4,5,6},{7,8,0}});
+	  assertEquals(2, conflict.manhattan());
+	  assertEquals(4, new LinearConflictComparator().heuristic(conflict));
+	  assertEquals(0, new LinearConflictComparator().heuristic(solved3x3Board));
+  }
+  
+  @Test
+  public void incrementalLinearConflictEqualsRecomputedValue() {
+	  LinearConflictComparator comparator = new LinearConflictComparator();
+	  BoardState state = new BoardState(distanceBoard2, null, 0, comparator.heuristic(distanceBoard2));
+	  for (int step = 0; step < 200; step++) {
+		  for (Board neighbor : state.getCurrentNeighbors()) {
+			  assertEquals(comparator.heuristic(neighbor), comparator.heuristic(neighbor, state));
+		  }
+		  Board next = state.getCurrentNeighbors().toArray(new Board[0])[step % 2];
+		  state = new BoardState(next, state, step + 1, comparator.heuristic(next, state));
+	  }
+  }
+  
+  @Test
+  public void walkingDistanceOfSolvedBoardIsZero() {
+	  assertEquals(0, new WalkingDistanceComparator().heuristic(solved3x3Board));
+	  assertTrue(new WalkingDistanceComparator().heuristic(distanceBoard2) >= distanceBoard2.manhattan());
+  }
+  
+  @Test
+  public void tighterHeuristicsFindTheSameNumberOfMoves() {
+	  for (String path : new String[] {puzzel04, puzzel24, "boards/puzzle28.txt", "boards/puzzle30.txt", "boards/puzzle32.txt"}) {
+		  Board b = BoardReader.getBoardWithData(path);
+		  int moves = new Solver(b, PriorityFunc.MANHATTAN).getMinimalNumberOfMoves();
+		  for (HeuristicComparator heuristic : new HeuristicComparator[] {new LinearConflictComparator(), new WalkingDistanceComparator()}) {
+			  assertTrue(heuristic.heuristic(b) <= moves);
+			  assertEquals(moves, new Solver(b, heuristic).getMinimalNumberOfMoves());
+			  assertEquals(moves, new Solver(b, heuristic, SearchMode.IDA_STAR).getMinimalNumberOfMoves());
+		  }
+	  }
+  }
+  
+  @Test
+  public void patternDatabaseFindsTheSameNumberOfMoves() throws IOException {
+	  File file = File.createTempFile("pdb", ".bin");
+	  file.deleteOnExit();
+	  PatternDatabaseBuilder.write(file.getPath(), 3, PatternDatabaseBuilder.getDefaultGroups(3));
+	  PatternDatabaseComparator comparator = PatternDatabaseComparator.load(file.getPath());
+	  assertEquals(0, comparator.heuristic(solved3x3Board));
+	  assertTrue(comparator.heuristic(distanceBoard1) >= distanceBoard1.manhattan());
+	  for (String path : new String[] {puzzel04, "boards/puzzle28.txt", "boards/puzzle30.txt"}) {
+		  Board b = BoardReader.getBoardWithData(path);
+		  int moves = new Solver(b, PriorityFunc.MANHATTAN).getMinimalNumberOfMoves();
+		  assertEquals(moves, new Solver(b, comparator).getMinimalNumberOfMoves());
+		  assertEquals(moves, new Solver(b, comparator, SearchMode.IDA_STAR).getMinimalNumberOfMoves());
+	  }
+  }
+  
+  @Test
+  public void bidirectionalSearchFindsTheSameNumberOfMoves() {
+	  for (String path : new String[] {puzzel04, puzzel22, puzzel24, "boards/puzzle30.txt", "boards/puzzle34.txt"}) {
+		  Board b = BoardReader.getBoardWithData(path);
+		  Solver aStar = new Solver(b, PriorityFunc.MANHATTAN);
+		  Solver bidirectional = new Solver(b, PriorityFunc.MANHATTAN, SearchMode.BIDIRECTIONAL);
+		  assertEquals(aStar.getMinimalNumberOfMoves(), bidirectional.getMinimalNumberOfMoves());
+		  List<Board> solution = bidirectional.solution();
+		  assertEquals(aStar.getMinimalNumberOfMoves() + 1, solution.size());
+		  assertEquals(b, solution.get(0));
+		  assertTrue(solution.get(solution.size() - 1).isSolved());
+		  for (int i = 1; i < solution.size(); i++) {
+			  assertTrue(solution.get(i - 1).neighbors().contains(solution.get(i)));
+		  }
+	  }
+  }
+  
+  @Test
+  public void batchSolverReturnsEveryResult() throws InterruptedException {
+	  final Map<String, BatchResult> results = new HashMap<>();
+	  try (BatchSolver batch = new BatchSolver(2, 3)) {
+		  batch.solveFiles(Arrays.asList(puzzel04, puzzel20, puzzel22, puzzel24, puzzel26, unsolvable),
+				  new ManhattanComparator(), SearchMode.A_STAR, new Consumer<BatchResult>() {
+			  @Override
+			  public void accept(BatchResult result) {
+				  results.put(result.getSource(), result);
+			  }
+		  });
+	  }
+	  assertEquals(6, results.size());
+	  assertEquals(4, results.get(puzzel04).getNbrMoves());
+	  assertEquals(14, results.get(puzzel20).getNbrMoves());
+	  assertEquals(2, results.get(puzzel26).getNbrMoves());
+	  assertFalse(results.get(unsolvable).isSolved());
+  }
+
+  @Test
+  public void batchSolverStopsAtTheTimeout() throws InterruptedException {
+	  final List<BatchResult> results = new ArrayList<>();
+	  try (BatchSolver batch = new BatchSolver(1, 1, 50)) {
+		  batch.solveFiles(Arrays.asList(puzzel04, "boards/puzzle42.txt"), new HammingComparator(), SearchMode.IDA_STAR,
+				  new Consumer<BatchResult>() {
+			  @Override
+			  public void accept(BatchResult result) {
+				  results.add(result);
+			  }
+		  });
+	  }
+	  assertEquals(4, results.get(0).getNbrMoves());
+	  assertFalse(results.get(1).isSolved());
+	  assertTrue(results.get(1).getError() instanceof IllegalStateException);
+	  assertTrue(results.get(1).getStats().getNbrExpandedNodes() > 0);
+  }
+
+  @Test
+  public void memoryBoundedSearchFindsTheSameNumberOfMoves() {
+	  for (String path : new String[] {puzzel04, puzzel24, "boards/puzzle28.txt", "boards/puzzle30.txt", "boards/puzzle40.txt"}) {
+		  Board b = BoardReader.getBoardWithData(path);
+		  int moves = new Solver(b, PriorityFunc.MANHATTAN).getMinimalNumberOfMoves();
+		  for (long budget : new long[] {500, 1000000}) {
+			  Solver bounded = new Solver(b, new ManhattanComparator(), budget);
+			  assertEquals(moves, bounded.getMinimalNumberOfMoves());
+			  assertTrue(bounded.getStats().getPeakOpenSize() <= budget);
+			  assertTrue(bounded.getMoves().getLastBoard().isSolved());
+		  }
+		  assertEquals(moves, new Solver(b, PriorityFunc.MANHATTAN, SearchMode.SMA_STAR).getMinimalNumberOfMoves());
+	  }
+	  try {
+		  new Solver(distanceBoard1, new ManhattanComparator(), 4);
+		  fail();
+	  } catch (IllegalArgumentException e) {
+		  // the budget cannot hold the initial board and its neighbours
+	  }
+  }
+
+  @Test
+  public void arenaSearchFindsTheSameNumberOfMoves() {
+	  NodeArena arena = new NodeArena(16);
+	  for (String path : new String[] {puzzel04, puzzel24, "boards/puzzle28.txt", "boards/puzzle32.txt", puzzel22}) {
+		  Board b = BoardReader.getBoardWithData(path);
+		  int moves = new Solver(b, PriorityFunc.MANHATTAN).getMinimalNumberOfMoves();
+		  Solver arenaSolver = new Solver(b, new LinearConflictComparator(), arena, new SolverStats());
+		  assertEquals(moves, arenaSolver.getMinimalNumberOfMoves());
+		  assertTrue(arenaSolver.getMoves().getLastBoard().isSolved());
+		  assertEquals(moves, new Solver(b, PriorityFunc.MANHATTAN, SearchMode.ARENA_A_STAR).getMinimalNumberOfMoves());
+	  }
+	  assertTrue(arena.getCapacity() > 16);
+	  arena.clear();
+	  assertEquals(0, arena.size());
+  }
+
+  @Test
+  public void asyncSolveCanBeCancelledAndTimedOut() throws Exception {
+	  ExecutorService executor = Executors.newSingleThreadExecutor();
+	  try {
+		  Board b = BoardReader.getBoardWithData(puzzel22);
+		  assertEquals(12, Solver.solveAsync(b, new ManhattanComparator(), SearchMode.A_STAR, new CancellationToken(), executor)
+				  .get().getMinimalNumberOfMoves());
+		  Board hard = BoardReader.getBoardWithData("boards/puzzle42.txt");
+		  CompletableFuture<Solver> timedOut = Solver.solveAsync(hard, new HammingComparator(), SearchMode.IDA_STAR,
+				  new CancellationToken(50), executor);
+		  try {
+			  timedOut.get(10, TimeUnit.SECONDS);
+			  fail();
+		  } catch (ExecutionException e) {
+			  assertTrue(e.getCause() instanceof TimeoutException);
+		  }
+		  CancellationToken token = new CancellationToken();
+		  CompletableFuture<Solver> cancelled = Solver.solveAsync(hard, new HammingComparator(), SearchMode.HDA_STAR,
+				  token, executor);
+		  assertTrue(cancelled.cancel(true));
+		  assertTrue(token.isCancelled());
+		  // the search has stopped when the next task of the single thread runs
+		  assertEquals(4, Solver.solveAsync(BoardReader.getBoardWithData(puzzel04), new ManhattanComparator(), SearchMode.A_STAR,
+				  new CancellationToken(), executor).get(10, TimeUnit.SECONDS).getMinimalNumberOfMoves());
+	  } finally {
+		  executor.shutdownNow();
+	  }
+  }
+
+  @Test
+  public void placementSolvesLargeBoards() {
+	  assertEquals(new Solver(BoardReader.getBoardWithData(puzzel04), PriorityFunc.MANHATTAN).getMinimalNumberOfMoves(),
+			  new Solver(BoardReader.getBoardWithData(puzzel04), PriorityFunc.MANHATTAN, SearchMode.PLACEMENT).getMinimalNumberOfMoves());
+	  assertTrue(new Solver(BoardReader.getBoardWithData(puzzel20), PriorityFunc.MANHATTAN, SearchMode.PLACEMENT)
+			  .getMoves().getLastBoard().isSolved());
+	  Random random = new Random(15);
+	  Board b = Board.getSolvedBoard(15);
+	  for (int i = 0; i < 2000; i++) {
+		  List<Board> neighbors = new ArrayList<>(b.neighbors());
+		  b = neighbors.get(random.nextInt(neighbors.size()));
+	  }
+	  Solver placement = new Solver(b, PriorityFunc.MANHATTAN, SearchMode.PLACEMENT);
+	  Solver shortened = new Solver(b, PriorityFunc.MANHATTAN, SearchMode.SHORTENED_PLACEMENT);
+	  assertTrue(placement.getMoves().getLastBoard().isSolved());
+	  assertTrue(shortened.getMoves().getLastBoard().isSolved());
+	  assertTrue(shortened.getMinimalNumberOfMoves() <= placement.getMinimalNumberOfMoves());
+	  assertEquals(shortened.getMinimalNumberOfMoves() + 1, new HashSet<>(shortened.solution()).size());
+  }
+
+  @Test
+  public void solveIsRecordedByFlightRecorder() throws IOException {
+	  Path file = Files.createTempFile("solve", ".jfr");
+	  try (Recording recording = new Recording()) {
+		  recording.enable("gna.Solve");
+		  recording.start();
+		  new Solver(BoardReader.getBoardWithData(puzzel22), new ManhattanComparator(), SearchMode.A_STAR);
+		  recording.stop();
+		  recording.dump(file);
+		  List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+		  assertEquals(1, events.size());
+		  assertEquals(5, events.get(0).getInt("boardSize"));
+		  assertEquals("A_STAR", events.get(0).getString("mode"));
+		  assertEquals(12, events.get(0).getInt("moves"));
+		  assertTrue(events.get(0).getLong("expanded") > 0);
+	  } finally {
+		  Files.delete(file);
+	  }
+  }
+
+  @Test
+  public void mainExpandsDirectoriesAndPatterns() {
+	  List<String> pattern = Main.expandPath("boards/puzzle3?.txt");
+	  assertEquals(Arrays.asList("boards/puzzle30.txt", "boards/puzzle32.txt", "boards/puzzle34.txt",
+			  "boards/puzzle36.txt", "boards/puzzle38.txt"), pattern);
+	  List<String> directory = Main.expandPath("boards");
+	  assertTrue(directory.containsAll(pattern));
+	  assertTrue(directory.contains(unsolvable));
+	  assertEquals(Collections.singletonList(puzzel04), Main.expandPath(puzzel04));
+  }
+
+  @Test
+  public void mainReportsTheMemoryOfEveryBoard() throws InterruptedException {
+	  final List<BatchResult> results = new ArrayList<>();
+	  try (BatchSolver batch = new BatchSolver(1, 1)) {
+		  batch.solveFiles(Arrays.asList(puzzel04, unsolvable), new ManhattanComparator(), SearchMode.A_STAR,
+				  new Consumer<BatchResult>() {
+			  @Override
+			  public void accept(BatchResult result) {
+				  results.add(result);
+			  }
+		  });
+	  }
+	  assertTrue(results.get(0).getAllocatedBytes() > 0);
+	  assertEquals(8, Main.toCsv(results.get(0)).split(",", -1).length);
+	  assertTrue(Main.toJson(results.get(0)).contains("\"allocatedBytes\":" + results.get(0).getAllocatedBytes()));
+	  assertFalse(results.get(1).isSolved());
+	  assertEquals(8, Main.toCsv(results.get(1)).split(",", -1).length);
+  }
+
+  @Test
+  public void hashDistributedSearchFindsTheSameNumberOfMoves() {
+	  for (String path : new String[] {puzzel04, puzzel22, puzzel24, "boards/puzzle30.txt", "boards/puzzle34.txt"}) {
+		  Board b = BoardReader.getBoardWithData(path);
+		  int moves = new Solver(b, PriorityFunc.MANHATTAN).getMinimalNumberOfMoves();
+		  BoardState solution = new HdaStarSearch(b, new ManhattanComparator(), 4).solve();
+		  assertEquals(moves, solution.getNbrMoves());
+		  assertTrue(solution.isCurrentSolved());
+		  assertEquals(moves, new Solver(b, PriorityFunc.MANHATTAN, SearchMode.HDA_STAR).getMinimalNumberOfMoves());
+	  }
+  }
+  
+  @Test
+  public void bucketQueuePollsInComparatorOrder() {
+	  BucketQueue queue = new BucketQueue();
+	  PriorityQueue<BoardState> heap = new PriorityQueue<>(new ManhattanComparator());
+	  Random random = new Random(42);
+	  for (int i = 0; i < 1000; i++) {
+		  BoardState state = new BoardState(solved3x3Board, null, random.nextInt(100), random.nextInt(200));
+		  queue.add(state);
+		  heap.add(state);
+	  }
+	  while (!heap.isEmpty()) {
+		  BoardState expected = heap.poll();
+		  BoardState actual = queue.poll();
+		  assertEquals(expected.getPriority(), actual.getPriority());
+		  assertEquals(expected.getNbrMoves(), actual.getNbrMoves());
+	  }
+	  assertTrue(queue.isEmpty());
+  }
+  
+  @Test
+  public void bucketAStarFindsTheSameNumberOfMoves() {
+	  for (String path : new String[] {puzzel04, puzzel20, puzzel22, puzzel24, puzzel26, "boards/puzzle34.txt"}) {
+		  Board b = BoardReader.getBoardWithData(path);
+		  assertEquals(new Solver(b, PriorityFunc.MANHATTAN).getMinimalNumberOfMoves(),
+				  new Solver(b, PriorityFunc.MANHATTAN, SearchMode.BUCKET_A_STAR).getMinimalNumberOfMoves());
+	  }
+  }
+  
+  @Test
+  public void solverStatsCountTheSearch() {
+	  final int[] nbrReports = new int[1];
+	  SolverStats stats = new SolverStats(new Consumer<SolverStats>() {
+		  @Override
+		  public void accept(SolverStats progress) {
+			  nbrReports[0]++;
+		  }
+	  }, 1);
+	  Solver s = new Solver(BoardReader.getBoardWithData("boards/puzzle34.txt"), new ManhattanComparator(), SearchMode.A_STAR, stats);
+	  assertEquals(stats.getNbrExpandedNodes(), s.getNbrExpandedNodes());
+	  assertEquals(stats.getNbrExpandedNodes() / 1024, nbrReports[0]);
+	  assertTrue(stats.getNbrGeneratedNodes() >= 2 * stats.getNbrExpandedNodes());
+	  assertTrue(stats.getNbrHeuristicEvaluations() <= stats.getNbrGeneratedNodes() + 1);
+	  assertTrue(stats.getNbrDuplicatesPruned() > 0);
+	  assertTrue(stats.getPeakOpenSize() > 0);
+	  assertTrue(stats.getSearchNanos() > 0);
+	  for (SearchMode mode : SearchMode.values()) {
+		  assertTrue(new Solver(BoardReader.getBoardWithData(puzzel04), new ManhattanComparator(), mode).getStats().getNbrExpandedNodes() > 0);
+	  }
+  }
+  
+  @Test
+  public void zobristKeyOfNeighborsEqualsKeyOfNewBoard() {
+	  Board b = BoardReader.getBoardWithData(puzzel22);
+	  Random random = new Random(7);
+	  for (int i = 0; i < 200; i++) {
+		  List<Board> neighbors = new ArrayList<>(b.neighbors());
+		  b = neighbors.get(random.nextInt(neighbors.size()));
+		  Board copy = new Board(b.getTiles());
+		  assertEquals(copy.getKey(), b.getKey());
+		  assertEquals(copy.hashCode(), b.hashCode());
+		  assertEquals(copy, b);
+	  }
+	  assertFalse(b.getKey() == Board.getSolvedBoard(5).getKey());
+  }
+
+  @Test
+  public void largestBoardHasZobristKeysAndLargerBoardsAreRejected() {
+	  Board b = Board.getSolvedBoard(Board.MAX_SIZE);
+	  for (Board neighbor : b.neighbors()) {
+		  Board copy = new Board(neighbor.getTiles());
+		  assertEquals(copy.getKey(), neighbor.getKey());
+		  assertFalse(neighbor.getKey() == b.getKey());
+	  }
+	  try {
+		  Board.getSolvedBoard(Board.MAX_SIZE + 1);
+		  fail();
+	  } catch (IllegalArgumentException e) {
+		  // the values of the board do not fit in two bytes per tile
+	  }
+	  try {
+		  new Board(new int[Board.MAX_SIZE + 1][Board.MAX_SIZE + 1]);
+		  fail();
+	  } catch (IllegalArgumentException e) {
+		  // the size is checked before the values
+	  }
+  }
+  
+  @Test (expected = StackOverflowError.class, timeout = 10000)
+  public void hashDistributedSearchRethrowsTheErrorOfAWorker() {
+	  HeuristicComparator failing = new ManhattanComparator() {
+		  private volatile int nbrEvaluations;
+		  @Override
+		  public int heuristic(TileGrid grid) {
+			  if (++nbrEvaluations > 100) {
+				  throw new StackOverflowError();
+			  }
+			  return super.heuristic(grid);
+		  }
+	  };
+	  new HdaStarSearch(BoardReader.getBoardWithData("boards/puzzle34.txt"), failing, 4).solve();
+  }
+  
+  @Test
+  public void batchSolverKeepsTheErrorOfABoard() throws InterruptedException {
+	  HeuristicComparator failing = new ManhattanComparator() {
+		  @Override
+		  public int heuristic(TileGrid grid) {
+			  if (grid.getSize() == 4) {
+				  throw new StackOverflowError();
+			  }
+			  return super.heuristic(grid);
+		  }
+	  };
+	  final List<BatchResult> results = new ArrayList<>();
+	  try (BatchSolver batch = new BatchSolver(1, 1)) {
+		  batch.solveFiles(Arrays.asList("boards/puzzle42.txt", puzzel04), failing, SearchMode.A_STAR, new Consumer<BatchResult>() {
+			  @Override
+			  public void accept(BatchResult result) {
+				  results.add(result);
+			  }
+		  });
+	  }
+	  assertTrue(results.get(0).getError() instanceof StackOverflowError);
+	  assertEquals(4, results.get(1).getNbrMoves());
+  }
+
+  @Test
+  public void corruptPatternDatabaseIsRejected() throws IOException {
+	  File file = File.createTempFile("pdb", ".bin");
+	  file.deleteOnExit();
+	  PatternDatabaseBuilder.write(file.getPath(), 3, PatternDatabaseBuilder.getDefaultGroups(3));
+	  byte[] valid = Files.readAllBytes(file.toPath());
+	  // the size, the number of groups, the number of tiles of the first group, its first tile and its table length
+	  int[][] corruptions = {{8, 1 << 20}, {12, Integer.MAX_VALUE}, {12, -1}, {16, -5}, {16, 1 << 28}, {20, 9}, {24, 1}, {36, 7}};
+	  for (int[] corruption : corruptions) {
+		  byte[] corrupt = valid.clone();
+		  ByteBuffer.wrap(corrupt).putInt(corruption[0], corruption[1]);
+		  Files.write(file.toPath(), corrupt);
+		  try {
+			  PatternDatabaseComparator.load(file.getPath());
+			  fail("Loaded a file with " + corruption[1] + " at offset " + corruption[0]);
+		  } catch (IOException e) {
+			  // expected
+		  }
+	  }
+	  Files.write(file.toPath(), Arrays.copyOf(valid, valid.length - 1));
+	  try {
+		  PatternDatabaseComparator.load(file.getPath());
+		  fail("Loaded a truncated file");
+	  } catch (IOException e) {
+		  // expected
+	  }
+  }
+  
+  @Test
+  public void isSolvableFollowsThePermutationParity() {
+	  Random random = new Random(3);
+	  for (int size = 2; size <= 20; size++) {
+		  Board b = Board.getSolvedBoard(size);
+		  for (int i = 0; i < 500; i++) {
+			  List<Board> neighbors = new ArrayList<>(b.neighbors());
+			  b = neighbors.get(random.nextInt(neighbors.size()));
+		  }
+		  assertTrue(b.isSolvable());
+		  int[][] tiles = b.getTiles();
+		  int first = (tiles[0][0] == 0 || tiles[0][1] == 0) ? 1 : 0;
+		  int swapped = tiles[first][0];
+		  tiles[first][0] = tiles[first][1];
+		  tiles[first][1] = swapped;
+		  assertFalse(new Board(tiles).isSolvable());
+	  }
+  }
+  
+  @Test
+  public void moveSequenceReplaysTheSolution() {
+	  Board b = BoardReader.getBoardWithData("boards/puzzle38.txt");
+	  Solver s = new Solver(b, PriorityFunc.MANHATTAN);
+	  MoveSequence moves = s.getMoves();
+	  assertEquals(38, moves.size());
+	  assertEquals(38, moves.toString().length());
+	  List<Board> solution = s.solution();
+	  assertEquals(39, solution.size());
+	  assertEquals(b, solution.get(0));
+	  assertTrue(moves.getLastBoard().isSolved());
+	  MoveDirection[] directions = new MoveDirection[moves.size()];
+	  for (int i = 0; i < directions.length; i++) {
+		  directions[i] = moves.getMove(i);
+	  }
+	  int i = 0;
+	  for (Board board : new MoveSequence(b, directions)) {
+		  assertEquals(solution.get(i++), board);
+	  }
+	  assertEquals(38, s.getBoardStateSolution().getNbrMoves());
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void moveSequenceLeavingTheBoardWillThrowException() {
+	  new MoveSequence(solved3x3Board, MoveDirection.RIGHT);
+  }
+  
+  @Test
+  public void solutionCacheOnlyKeepsSolutionsWithTheFewestMoves() {
+	  SolutionCache cache = new SolutionCache(4);
+	  Board b = BoardReader.getBoardWithData("boards/puzzle34.txt");
+	  MoveSequence placement = cache.solve(b, new ManhattanComparator(), SearchMode.PLACEMENT);
+	  assertTrue(placement.size() > 34);
+	  assertEquals(0, cache.size());
+	  assertEquals(34, cache.solve(b, new ManhattanComparator(), SearchMode.A_STAR).size());
+	  assertEquals(34, cache.solve(b, new ManhattanComparator(), SearchMode.PLACEMENT).size());
+	  assertEquals(1, cache.getNbrHits());
+  }
+  
+  @Test
+  public void solutionCacheServesTransposedBoards() {
+	  SolutionCache cache = new SolutionCache(2);
+	  Board b = BoardReader.getBoardWithData("boards/puzzle30.txt");
+	  Board transposed = SolutionCache.transpose(b);
+	  assertFalse(b.equals(transposed));
+	  assertEquals(b, SolutionCache.transpose(transposed));
+	  MoveSequence moves = cache.solve(b, new ManhattanComparator(), SearchMode.A_STAR);
+	  MoveSequence transposedMoves = cache.solve(transposed, new ManhattanComparator(), SearchMode.A_STAR);
+	  assertEquals(1, cache.getNbrMisses());
+	  assertEquals(1, cache.getNbrHits());
+	  assertEquals(30, moves.size());
+	  assertEquals(30, transposedMoves.size());
+	  assertEquals(transposed, transposedMoves.getInitialBoard());
+	  assertTrue(transposedMoves.getLastBoard().isSolved());
+	  cache.solve(BoardReader.getBoardWithData(puzzel04), new ManhattanComparator(), SearchMode.A_STAR);
+	  cache.solve(BoardReader.getBoardWithData(puzzel24), new ManhattanComparator(), SearchMode.A_STAR);
+	  assertEquals(1, cache.getNbrEvictions());
+	  assertEquals(2, cache.size());
+	  assertNull(cache.get(b));
+  }
+  
+  @Test
+  public void anytimeSolverProvesItsBound() {
+	  AnytimeSolver solver = new AnytimeSolver(BoardReader.getBoardWithData("boards/puzzle38.txt"), new ManhattanComparator(), 60000);
+	  assertTrue(solver.isOptimal());
+	  assertEquals(38, solver.getNbrMoves());
+	  assertTrue(solver.getMoves().getLastBoard().isSolved());
+	  AnytimeSolver hurried = new AnytimeSolver(BoardReader.getBoardWithData("boards/puzzle42.txt"), new ManhattanComparator(), 0);
+	  if (hurried.hasSolution()) {
+		  assertTrue(hurried.getNbrMoves() >= 42);
+		  assertTrue(hurried.getNbrMoves() <= 42 * hurried.getSuboptimalityBound());
+	  } else {
+		  assertTrue(Double.isInfinite(hurried.getSuboptimalityBound()));
+	  }
+	  AnytimeSolver weighted = new AnytimeSolver(BoardReader.getBoardWithData("boards/puzzle36.txt"), new ManhattanComparator(), 60000, 4, 10);
+	  assertEquals(36, weighted.getNbrMoves());
+	  assertEquals(1.0, weighted.getWeight(), 0);
+  }
+  
+  @Test
+  public void bulkBoardReaderReadsManyBoards() {
+	  String boards = "3\n0 1 3\n4 2 5\n7 8 6\n\r\n2\t1 2\n3 0 3 1 2 3 4 5 6 7 8 0";
+	  try (BulkBoardReader reader = new BulkBoardReader(new ByteArrayInputStream(boards.getBytes()))) {
+		  assertEquals(BoardReader.getBoardWithData(puzzel04), reader.next());
+		  assertTrue(reader.next().isSolved());
+		  assertEquals(solved3x3Board, reader.next());
+		  assertFalse(reader.hasNext());
+		  assertEquals(3, reader.getNbrBoardsRead());
+	  }
+  }
+  
+  @Test
+  public void bulkBoardReaderReportsWhereABoardIsWrong() {
+	  String[] wrongBoards = {"2 1 2 3", "2 1 2 x 0", "2 1 1 2 0", "0"};
+	  for (String wrongBoard : wrongBoards) {
+		  try (BulkBoardReader reader = new BulkBoardReader(new ByteArrayInputStream(("2 1 2 3 0 " + wrongBoard).getBytes()))) {
+			  reader.next();
+			  reader.next();
+			  fail();
+		  } catch (IllegalArgumentException e) {
+			  assertTrue(e.getMessage(), e.getMessage().contains("board 1") || e.getMessage().startsWith("Board 1 at byte 10"));
+		  }
+	  }
+  }
+  
+  @Test
+  public void boardFileReadsTheWrittenRecords() throws IOException {
+	  Path path = Files.createTempFile("boards", ".bin");
+	  try {
+		  String[] paths = {"boards/puzzle32.txt", "boards/puzzle34.txt", "boards/puzzle36.txt", "boards/puzzle38.txt"};
+		  MoveSequence[] solutions = new MoveSequence[paths.length];
+		  try (BoardFileWriter writer = new BoardFileWriter(path, 4, 40)) {
+			  for (int i = 0; i < paths.length; i++) {
+				  Board b = BoardReader.getBoardWithData(paths[i]);
+				  solutions[i] = (i % 2 == 0) ? new Solver(b, PriorityFunc.MANHATTAN).getMoves() : null;
+				  writer.write(b, solutions[i]);
+			  }
+		  }
+		  BoardFile file = BoardFile.load(path);
+		  assertEquals(paths.length, file.getNbrRecords());
+		  assertTrue(file.hasSolutions());
+		  for (int i = paths.length - 1; i >= 0; i--) {
+			  assertEquals(BoardReader.getBoardWithData(paths[i]), file.getBoard(i));
+			  if (solutions[i] == null) {
+				  assertNull(file.getMoves(i));
+			  } else {
+				  assertEquals(solutions[i].toString(), file.getMoves(i).toString());
+				  assertTrue(file.getMoves(i).getLastBoard().isSolved());
+			  }
+		  }
+		  try (BoardFileWriter writer = new BoardFileWriter(path, 7, 0)) {
+			  writer.write(BoardReader.getBoardWithData(puzzel20));
+		  }
+		  file = BoardFile.load(path);
+		  assertFalse(file.hasSolutions());
+		  assertEquals(BoardReader.getBoardWithData(puzzel20), file.getBoard(0));
+	  } finally {
+		  Files.delete(path);
+	  }
+  }
+  
+  @Test
+  public void bulkBoardReaderReadsBoardsUpToTheLargestSize() {
+	  for (int size : new int[] {Board.MAX_SIZE, Board.MAX_SIZE + 1}) {
+		  StringBuilder boards = new StringBuilder().append(size);
+		  for (int index = 0; index < size * size; index++) {
+			  boards.append(' ').append((index + 1) % (size * size));
+		  }
+		  try (BulkBoardReader reader = new BulkBoardReader(new ByteArrayInputStream(boards.toString().getBytes()))) {
+			  assertEquals(Board.getSolvedBoard(Board.MAX_SIZE), reader.next());
+			  assertEquals(Board.MAX_SIZE, size);
+		  } catch (IllegalArgumentException e) {
+			  assertEquals(Board.MAX_SIZE + 1, size);
+			  assertTrue(e.getMessage(), e.getMessage().contains("not between 1 and " + Board.MAX_SIZE));
+		  }
+	  }
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void boardFileWriterRejectsSizesTheReadersDoNotSupport() throws IOException {
+	  File file = File.createTempFile("boards", ".bin");
+	  file.deleteOnExit();
+	  new BoardFileWriter(file.toPath(), Board.MAX_SIZE + 1, 0).close();
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void tilesWhichAreNoPermutationWillThrowException() {
+	  new Board(new int[][] {{1,2},{2,0}});
+  }
+  
   @Test (expected = IllegalArgumentException.class)
   public void solveAnImpossiblePuzzelWillThrowException() {
 	  new Solver(BoardReader.getBoardWithData(unsolvable), PriorityFunc.MANHATTAN);
@@ -0,0 +1,140 @@
+package gna;
+
+import java.util.ArrayDeque;
+
+/**
+ * Comparator used for comparing BoardStates.
+ *  The comparator makes use of the walking distance priority function.
+ *  For the rows, a board is reduced to a table which counts for every row how many of its tiles belong in each goal row,
+ *  together with the row of the empty tile. Every move of the empty tile to another row moves one tile between two rows.
+ *  The fewest number of such moves to the goal table is precomputed with a breadth-first search from the goal table.
+ *  The columns are reduced in the same way, by symmetry they use the same precomputed table.
+ *  The walking distance is the sum of both, it is only supported for boards up to 4x4.
+ * @author Dries Janse
+ * @version 1.0
+ */
+public class WalkingDistanceComparator extends HeuristicComparator {
+
+	/**
+	 * Variable storing the largest board size for which the tables can be computed.
+	 */
+	public static final int MAX_SIZE = 4;
+
+	/**
+	 * Variable storing the number of bits used for one count in a table key.
+	 */
+	private static final int BITS_PER_COUNT = 3;
+
+	/**
+	 * Variable storing the precomputed distances per board size; null for sizes which were not needed yet.
+	 *  The array is replaced instead of changed, so the tables are read without a lock once they are published.
+	 */
+	private static volatile TranspositionTable[] distancesPerSize = new TranspositionTable[MAX_SIZE + 1];
+
+	/**
+	 * Returns the row walking distance plus the column walking distance of the given grid.
+	 * {@inheritDoc}
+	 * @throws IllegalArgumentException When the grid is larger than MAX_SIZE.
+	 */
+	@Override
+	public int heuristic(TileGrid grid) {
+		TranspositionTable distances = getDistances(grid.getSize());
+		return distances.get(this.getKey(grid, true)) + distances.get(this.getKey(grid, false));
+	}
+
+	/**
+	 * Returns the table key of the given grid.
+	 * @param grid The grid of which the key is computed.
+	 * @param rows True for the key of the rows, false for the key of the columns.
+	 * @return The key which contains every count and the line of the empty tile.
+	 */
+	private long getKey(TileGrid grid, boolean rows) {
+		int size = grid.getSize();
+		long key = 0;
+		for (int index = 0; index < size * size; index++) {
+			int value = grid.getValue(index);
+			if (value != 0) {
+				int line = rows ? index / size : index % size;
+				int goalLine = rows ? (value - 1) / size : (value - 1) % size;
+				key += 1L << (BITS_PER_COUNT * (line * size + goalLine));
+			}
+		}
+		int blankLine = rows ? grid.getBlankIndex() / size : grid.getBlankIndex() % size;
+		return key | ((long) blankLine << (BITS_PER_COUNT * size * size));
+	}
+
+	/**
+	 * Returns the precomputed distances for boards of the given size, computing them when needed.
+	 * @param size The size of the board.
+	 * @return The table mapping every reachable key on its distance to the goal key.
+	 * @throws IllegalArgumentException When the size is larger than MAX_SIZE.
+	 */
+	private static TranspositionTable getDistances(int size) {
+		if (size < 1 || size > MAX_SIZE) {
+			throw new IllegalArgumentException("The walking distance is only supported for boards up to " + MAX_SIZE + "x" + MAX_SIZE);
+		}
+		TranspositionTable distances = distancesPerSize[size];
+		return (distances != null) ? distances : createDistances(size);
+	}
+
+	/**
+	 * Computes the distances for boards of the given size, unless another thread already did.
+	 * @param size The size of the board.
+	 * @return The table mapping every reachable key on its distance to the goal key.
+	 */
+	private static synchronized TranspositionTable createDistances(int size) {
+		TranspositionTable[] tables = distancesPerSize;
+		if (tables[size] == null) {
+			// copy on write: the table is only published through the volatile variable
+			tables = tables.clone();
+			tables[size] = computeDistances(size);
+			distancesPerSize = tables;
+		}
+		return tables[size];
+	}
+
+	/**
+	 * Computes the distance of every reachable key to the goal key with a breadth-first search.
+	 * @param size The size of the board.
+	 * @return The table mapping every reachable key on its distance to the goal key.
+	 */
+	private static TranspositionTable computeDistances(int size) {
+		int blankShift = BITS_PER_COUNT * size * size;
+		long goal = 0;
+		for (int line = 0; line < size; line++) {
+			long count = (line == size - 1) ? size - 1 : size;
+			goal |= count << (BITS_PER_COUNT * (line * size + line));
+		}
+		goal |= (long) (size - 1) << blankShift;
+
+		TranspositionTable distances = new TranspositionTable();
+		ArrayDeque<Long> queue = new ArrayDeque<>();
+		distances.put(goal, 0);
+		queue.add(goal);
+		long countMask = (1L << BITS_PER_COUNT) - 1;
+		while (!queue.isEmpty()) {
+			long key = queue.poll();
+			int distance = distances.get(key);
+			int blankLine = (int) (key >>> blankShift);
+			for (int otherLine = blankLine - 1; otherLine <= blankLine + 1; otherLine += 2) {
+				if (otherLine < 0 || otherLine >= size) {
+					continue;
+				}
+				for (int goalLine = 0; goalLine < size; goalLine++) {
+					int otherShift = BITS_PER_COUNT * (otherLine * size + goalLine);
+					if (((key >>> otherShift) & countMask) == 0) {
+						continue;
+					}
+					long next = key - (1L << otherShift) + (1L << (BITS_PER_COUNT * (blankLine * size + goalLine)));
+					next = (next & ((1L << blankShift) - 1)) | ((long) otherLine << blankShift);
+					if (!distances.contains(next)) {
+						distances.put(next, distance + 1);
+						queue.add(next);
+					}
+				}
+			}
+		}
+		return distances;
+	}
+
+}
@@ -0,0 +1,46 @@
+package gna;
+
+/**
+ * The Zobrist keys give a random 64-bit number to every combination of an index and a tile value of a board size.
+ *  The Zobrist hash of a board is the XOR of the numbers of its tiles (the empty tile is left out),
+ *  so moving a tile changes the hash with two XORs: one for the old and one for the new index of the tile.
+ *  The numbers are not stored in a table, which would take size^4 longs, but mixed from the size, index and value
+ *  with the SplitMix64 finaliser, so a board has the same hash in every run and any board size costs no memory.
+ *
+ * @author Dries Janse
+ * @version 1.0
+ */
+final class ZobristKeys {
+
+	/**
+	 * Variable storing the seed of the random numbers.
+	 */
+	private static final long SEED = 0x5DEECE66DL;
+
+	/**
+	 * Variable storing the increment of SplitMix64, the golden ratio as a 64-bit fraction.
+	 */
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * This class only has static methods.
+	 */
+	private ZobristKeys() {
+	}
+
+	/**
+	 * Returns the random number of the given value on the given index of a board of the given size.
+	 * @param size  The size of the board.
+	 * @param index The index of the tile.
+	 * @param value The value of the tile.
+	 * @return The random number.
+	 */
+	static long get(int size, int index, int value) {
+		long cells = (long) size * size;
+		long z = (SEED ^ ((long) size << 40)) + (index * cells + value + 1) * GOLDEN_GAMMA;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+}